@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import model.Meeting;
+import model.MeetingCodec;
+import model.MeetingEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compara el coste por mensaje de parsear una reunión como se hacía antes (el servidor central,
+// el mediador, el observador y Meeting.fromStringFormat recorrían el texto cada uno por su cuenta)
+// con una sola pasada de MeetingCodec. Los bytes asignados por operación se ven con -prof gc
+// (gc.alloc.rate.norm).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeetingCodecBenchmark {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String EMPLOYEE = "Bob_Smith";
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        List<String> invited = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            invited.add("Employee_" + i);
+        }
+        invited.add(EMPLOYEE);
+        Meeting meeting = new Meeting("Quarterly planning", invited, "Alice_White", "Room 4",
+                LocalDateTime.of(2026, 10, 20, 9, 0), LocalDateTime.of(2026, 10, 20, 10, 30));
+        message = meeting.toStringFormat();
+
+        if (!MeetingCodec.encode(MeetingCodec.decode(message).toMeeting()).equals(message)) {
+            throw new IllegalStateException("MeetingCodec is not byte-compatible with toStringFormat");
+        }
+    }
+
+    // Lo que hacía cada etapa con el mismo mensaje antes de MeetingCodec
+    @Benchmark
+    public Object[] legacyPipeline() {
+        // CentralServer.extractSender
+        String sender = null;
+        for (String line : message.split("\n")) {
+            if (line.startsWith("ORGANIZER=")) {
+                sender = line.substring(10);
+            }
+        }
+        // CentralServerMediator.sendMessage
+        String uuid = "";
+        String lastModified = "";
+        String invitedLine = "";
+        for (String line : message.split("\n")) {
+            if (line.startsWith("UUID=")) {
+                uuid = line.substring(5);
+            } else if (line.startsWith("LAST_MODIFIED=")) {
+                lastModified = line.substring(14);
+            } else if (line.startsWith("INVITED=")) {
+                invitedLine = line.substring(8);
+            }
+        }
+        // MeetingUpdateObserver: un Pattern.compile por campo
+        String observedUuid = extract("UUID", message);
+        String topic = extract("TOPIC", message);
+        String organizer = extract("ORGANIZER", message);
+        LocalDateTime observedLastModified = LocalDateTime.parse(extract("LAST_MODIFIED", message), formatter);
+        boolean deleted = Boolean.parseBoolean(extract("DELETED", message));
+        boolean invited = false;
+        for (String name : extract("INVITED", message).split(",")) {
+            invited |= name.trim().equals(EMPLOYEE);
+        }
+        // Meeting.fromStringFormat (versión anterior: split y parse de todas las fechas)
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        for (String line : message.split("\n")) {
+            if (line.startsWith("START=")) {
+                start = LocalDateTime.parse(line.substring(6), formatter);
+            } else if (line.startsWith("END=")) {
+                end = LocalDateTime.parse(line.substring(4), formatter);
+            } else if (line.startsWith("LAST_MODIFIED=")) {
+                LocalDateTime.parse(line.substring(14), formatter);
+            }
+        }
+        List<String> invitedEmployees = new ArrayList<>();
+        for (String name : invitedLine.split(",")) {
+            if (!name.trim().isEmpty()) {
+                invitedEmployees.add(name.trim());
+            }
+        }
+        return new Object[] {sender, uuid, lastModified, observedUuid, topic, organizer, observedLastModified,
+                deleted, invited, start, end, invitedEmployees};
+    }
+
+    @Benchmark
+    public Object[] codecPipeline() {
+        MeetingEnvelope envelope = MeetingCodec.decode(message);
+        return new Object[] {envelope.getOrganizer(), envelope.getUuid(), envelope.getLastModifiedText(),
+                envelope.isInvited(EMPLOYEE), envelope.toMeeting()};
+    }
+
+    private static String extract(String key, String message) {
+        Matcher matcher = Pattern.compile(key + "=([^\\n]+)").matcher(message);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.BinaryMeetingCodec;
+import model.Meeting;
+import model.MeetingEnvelope;
+import model.NameDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Coste de convertir una reunión entre objeto y formato: el texto que va en los archivos de
+// reuniones (Meeting.toStringFormat / fromStringFormat) y el binario de los frames y snapshots.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeetingFormatBenchmark {
+    private Meeting meeting;
+    private String text;
+    private MeetingEnvelope envelope;
+    private BinaryMeetingCodec codec;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        List<String> invited = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            invited.add("Employee_" + i);
+        }
+        meeting = new Meeting("Quarterly planning", invited, "Employee_0", "Room 4",
+                LocalDateTime.of(2026, 10, 20, 9, 0), LocalDateTime.of(2026, 10, 20, 10, 30));
+        text = meeting.toStringFormat();
+        envelope = MeetingEnvelope.of(meeting);
+        codec = new BinaryMeetingCodec(new NameDictionary(invited));
+        binary = codec.encode(envelope);
+    }
+
+    @Benchmark
+    public String toStringFormat() {
+        return meeting.toStringFormat();
+    }
+
+    @Benchmark
+    public Meeting fromStringFormat() {
+        return Meeting.fromStringFormat(text);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return codec.encode(envelope);
+    }
+
+    @Benchmark
+    public Meeting binaryDecode() {
+        return codec.decode(binary).toMeeting();
+    }
+}
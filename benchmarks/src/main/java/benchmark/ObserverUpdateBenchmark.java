@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import model.Meeting;
+import model.MeetingEnvelope;
+import observer.MeetingIndex;
+import observer.MeetingLog;
+import observer.MeetingStore;
+import observer.MeetingUpdateObserver;
+import observer.WriteDurability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// MeetingUpdateObserver.update sobre un archivo de reuniones con 10, 1000 o 100000 entradas:
+// cada operación es una versión más reciente de una reunión existente elegida al azar.
+// Con durabilidad "update" la operación incluye esperar al fsync de su lote; con "none" la
+// escritura del archivo queda en el hilo de MeetingStore, como en el servidor.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObserverUpdateBenchmark {
+    private static final String EMPLOYEE = "Bob_Smith";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 20, 9, 0);
+
+    @Param({"10", "1000", "100000"})
+    public int meetings;
+
+    @Param({"none", "update"})
+    public String durability;
+
+    private File directory;
+    private MeetingStore store;
+    private MeetingUpdateObserver observer;
+    private List<String> uuids;
+    private long version = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        Quiet.silenceStandardOutput();
+        directory = Files.createTempDirectory("observer-bench").toFile();
+        String path = new File(directory, EMPLOYEE + "_meetings.txt").getPath();
+
+        // Archivo inicial con las reuniones, en el mismo formato que escribe el servidor
+        List<String> records = new ArrayList<>();
+        uuids = new ArrayList<>();
+        for (int i = 0; i < meetings; i++) {
+            Meeting meeting = meeting("Meeting " + i);
+            meeting.setLastModified(START);
+            uuids.add(meeting.getUuid());
+            records.add(meeting.toStringFormat());
+        }
+        new MeetingLog(path).rewrite(records, false);
+
+        MeetingIndex index = new MeetingIndex();
+        store = new MeetingStore(EMPLOYEE, path, index, true, 64, 0,
+                WriteDurability.parse(durability, WriteDurability.NONE), 0);
+        store.recover();
+        store.start();
+        observer = new MeetingUpdateObserver(EMPLOYEE, index, store);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void update() {
+        Meeting meeting = meeting("Updated");
+        meeting.setUuid(uuids.get(ThreadLocalRandom.current().nextInt(uuids.size())));
+        meeting.setLastModified(START.plusSeconds(++version));
+        observer.update(MeetingEnvelope.of(meeting));
+    }
+
+    private static Meeting meeting(String topic) {
+        List<String> invited = new ArrayList<>();
+        invited.add(EMPLOYEE);
+        invited.add("Carol_Simpson");
+        return new Meeting(topic, invited, "Alice_White", "Room 2", START, START.plusHours(1));
+    }
+}
@@ -0,0 +1,15 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+// El código medido escribe una línea de log por mensaje; dentro del fork de JMH se descarta
+// para medir el trabajo y no la consola
+final class Quiet {
+    private Quiet() {
+    }
+
+    static void silenceStandardOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import mediator.CentralServerMediator;
+import mediator.DeliveryReport;
+import model.Meeting;
+import model.MeetingEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CentralServerMediator.sendMessage con tablas de rutas de distinto tamaño: resolución de
+// destinatarios, colas por destinatario y reparto en paralelo hasta el informe de entrega.
+// El Sender no abre conexiones (cada entrega se confirma al instante), así que solo se mide
+// el trabajo del servidor central.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+    private static final int INVITEES = 10;
+
+    @Param({"10", "1000", "100000"})
+    public int employees;
+
+    private CentralServerMediator mediator;
+    private MeetingEnvelope message;
+    private File outboxDirectory;
+
+    @Setup
+    public void setUp() throws IOException {
+        Quiet.silenceStandardOutput();
+        outboxDirectory = Files.createTempDirectory("routing-outbox").toFile();
+        mediator = new CentralServerMediator((employeeName, meeting) -> { }, outboxDirectory);
+        for (int i = 0; i < employees; i++) {
+            mediator.registerEmployee("Employee_" + i, 10000 + i);
+        }
+
+        Random random = new Random(42);
+        List<String> invited = new ArrayList<>();
+        while (invited.size() < Math.min(INVITEES, employees - 1)) {
+            String employee = "Employee_" + (1 + random.nextInt(employees - 1));
+            if (!invited.contains(employee)) {
+                invited.add(employee);
+            }
+        }
+        message = MeetingEnvelope.of(new Meeting("Routing", invited, "Employee_0", "Room 1",
+                LocalDateTime.of(2026, 10, 20, 9, 0), LocalDateTime.of(2026, 10, 20, 10, 0)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = outboxDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        outboxDirectory.delete();
+    }
+
+    @Benchmark
+    public DeliveryReport sendMessage() {
+        return mediator.sendMessage(message, "Employee_0").join();
+    }
+}
@@ -0,0 +1,63 @@
+package mediator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import model.MeetingCodec;
+import model.MeetingEnvelope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CentralServerMediatorTest {
+    @TempDir
+    File directory;
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private CentralServerMediator mediator;
+
+    @BeforeEach
+    void createMediator() {
+        // La vista de calendarios lee los archivos de los empleados: ninguno en la prueba
+        System.setProperty("CALENDAR_DATA_DIR", directory.getPath());
+        mediator = new CentralServerMediator((employeeName, message) -> delivered.add(employeeName),
+                new File(directory, "outbox"));
+        mediator.registerEmployee("Alice_White", 1);
+        mediator.registerEmployee("Bob_Smith", 2);
+    }
+
+    @AfterEach
+    void clearSettings() {
+        System.clearProperty("CALENDAR_DATA_DIR");
+    }
+
+    private static MeetingEnvelope meeting(String start) {
+        return MeetingCodec.decode("UUID=u1\nTOPIC=t\nORGANIZER=Alice_White\nLOCATION=Sala 1\nSTART=" + start
+                + "\nEND=2026-11-02T10:00:00\nVERSION=100\nDELETED=false\nINVITED=Bob_Smith");
+    }
+
+    @Test
+    void deliversToEveryRecipient() throws Exception {
+        DeliveryReport report = mediator.sendMessage(meeting("2026-11-02T09:00:00"), "Alice_White")
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Alice_White", "Bob_Smith"), report.getRecipients(DeliveryReport.Status.DELIVERED));
+    }
+
+    @Test
+    void routingErrorFailsTheReport() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> mediator.sendMessage(meeting("ayer"), "Alice_White").get(5, TimeUnit.SECONDS));
+
+        assertTrue(failure.getCause() instanceof DateTimeParseException);
+        assertTrue(delivered.isEmpty());
+    }
+}
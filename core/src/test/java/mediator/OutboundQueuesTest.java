@@ -0,0 +1,120 @@
+package mediator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.Meeting;
+import model.MeetingEnvelope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import protocol.AckTimeoutException;
+import protocol.RejectedException;
+import protocol.WireFormat;
+
+class OutboundQueuesTest {
+    private static final String RECIPIENT = "Bob_Smith";
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+    @TempDir
+    File directory;
+
+    // Destinatario que no tiene ninguna versión base: rechaza los parches y acepta lo demás
+    private final List<MeetingEnvelope> received = new ArrayList<>();
+    private final OutboundQueues.Sender missingBase = (employeeName, message) -> {
+        if (message.isPatch()) {
+            throw new RejectedException(WireFormat.MISSING_BASE + ": meeting " + message.getUuid());
+        }
+        received.add(message);
+    };
+
+    private static Meeting meeting(long version) {
+        Meeting meeting = new Meeting("t", List.of(RECIPIENT), "Alice_White", "Sala 1", DAY.plusHours(9), DAY.plusHours(10));
+        meeting.setVersion(version);
+        return meeting;
+    }
+
+    private static Meeting moved(Meeting base, long version) {
+        Meeting updated = base.copy();
+        updated.setLocation("Sala 2");
+        updated.setVersion(version);
+        return updated;
+    }
+
+    @Test
+    void patchWithoutBaseIsResentInFull() throws Exception {
+        Meeting base = meeting(100);
+        Meeting updated = moved(base, 200);
+
+        OutboundQueues.send(missingBase, (employeeName, uuid) -> updated, RECIPIENT, MeetingEnvelope.patch(base, updated));
+
+        assertEquals(1, received.size());
+        assertFalse(received.get(0).isPatch());
+        assertEquals(updated.toStringFormat(), received.get(0).toMeeting().toStringFormat());
+    }
+
+    @Test
+    void missingBaseIsAFailureWhenTheFullMeetingIsUnknown() {
+        Meeting base = meeting(100);
+        Meeting updated = moved(base, 200);
+        MeetingEnvelope patch = MeetingEnvelope.patch(base, updated);
+
+        assertThrows(RejectedException.class,
+                () -> OutboundQueues.send(missingBase, (employeeName, uuid) -> null, RECIPIENT, patch));
+        // Una versión anterior a la del parche tampoco sirve
+        assertThrows(RejectedException.class,
+                () -> OutboundQueues.send(missingBase, (employeeName, uuid) -> base, RECIPIENT, patch));
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void otherRejectionsAreNotResent() {
+        Meeting base = meeting(100);
+        Meeting updated = moved(base, 200);
+        OutboundQueues.Sender rejecting = (employeeName, message) -> {
+            throw new RejectedException("Meeting could not be persisted");
+        };
+
+        assertThrows(RejectedException.class, () -> OutboundQueues.send(rejecting, (employeeName, uuid) -> updated,
+                RECIPIENT, MeetingEnvelope.patch(base, updated)));
+    }
+
+    @Test
+    void queuedPatchWithoutBaseIsDelivered() throws Exception {
+        Meeting base = meeting(100);
+        Meeting updated = moved(base, 200);
+        OutboundQueues.Versions versions = (employeeName, uuid) -> updated;
+        Outbox outbox = new Outbox(directory, missingBase, versions, Runnable::run, 10, 100);
+        OutboundQueues queues = new OutboundQueues(missingBase, versions, Runnable::run, outbox);
+
+        DeliveryReport.Outcome outcome = queues.enqueue(RECIPIENT, base.getUuid(), 200,
+                MeetingEnvelope.patch(base, updated)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(DeliveryReport.Status.DELIVERED, outcome.getStatus());
+        assertEquals(updated.toStringFormat(), received.get(0).toMeeting().toStringFormat());
+        assertFalse(outbox.hasPending(RECIPIENT));
+    }
+
+    @Test
+    void ackTimeoutIsRetriedFromTheOutbox() throws Exception {
+        Meeting meeting = meeting(100);
+        OutboundQueues.Sender slow = (employeeName, message) -> {
+            throw new AckTimeoutException("Timed out waiting for acknowledgement");
+        };
+        // Sin reintentos durante la prueba: el primero sería dentro de un minuto
+        Outbox outbox = new Outbox(directory, slow, (employeeName, uuid) -> null, Runnable::run, 60_000, 60_000);
+        OutboundQueues queues = new OutboundQueues(slow, (employeeName, uuid) -> null, Runnable::run, outbox);
+
+        DeliveryReport.Outcome outcome = queues.enqueue(RECIPIENT, meeting.getUuid(), 100, MeetingEnvelope.of(meeting))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(DeliveryReport.Status.DEFERRED, outcome.getStatus());
+        assertTrue(outbox.hasPending(RECIPIENT));
+    }
+}
@@ -0,0 +1,136 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BinaryMeetingCodecTest {
+    private final BinaryMeetingCodec codec =
+            new BinaryMeetingCodec(new NameDictionary(List.of("Alice_White", "Bob_Smith", "Carol_Simpson")));
+
+    private static MeetingEnvelope sample() {
+        return MeetingCodec.decode("UUID=6f1c2b9e-0d4a-4c3e-9a57-2f0e8c1d7b21\n"
+                + "TOPIC=Revisión del año\n"
+                + "ORGANIZER=Alice_White\n"
+                + "LOCATION=Sala 1\n"
+                + "START=2026-11-02T09:00:00\n"
+                + "END=2026-11-02T10:00:00\n"
+                + "LAST_MODIFIED=2026-10-01T08:30:00.125\n"
+                + "VERSION=117459081203417088\n"
+                + "DELETED=false\n"
+                + "INVITED=Bob_Smith,Eva_Brown");
+    }
+
+    private static void assertSameMeeting(MeetingEnvelope expected, MeetingEnvelope actual) {
+        assertEquals(expected.getUuid(), actual.getUuid());
+        assertEquals(expected.getTopic(), actual.getTopic());
+        assertEquals(expected.getOrganizer(), actual.getOrganizer());
+        assertEquals(expected.getLocation(), actual.getLocation());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getEndTime(), actual.getEndTime());
+        assertEquals(expected.getLastModified(), actual.getLastModified());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.isDeleted(), actual.isDeleted());
+        assertEquals(expected.getInvited(), actual.getInvited());
+    }
+
+    @Test
+    void roundTripKeepsEveryField() {
+        MeetingEnvelope meeting = sample();
+
+        MeetingEnvelope decoded = codec.decode(codec.encode(meeting));
+
+        assertSameMeeting(meeting, decoded);
+        // Eva_Brown no está en el diccionario y viaja como texto
+        assertEquals(meeting.getText(), decoded.getText());
+    }
+
+    @Test
+    void roundTripWithoutOptionalFields() {
+        MeetingEnvelope meeting = MeetingCodec.decode("UUID=legacy-1\nTOPIC=T\nORGANIZER=Zoe\nLOCATION=\nDELETED=true");
+
+        MeetingEnvelope decoded = codec.decode(codec.encode(meeting));
+
+        assertEquals("legacy-1", decoded.getUuid());
+        assertEquals("Zoe", decoded.getOrganizer());
+        assertNull(decoded.getStartTime());
+        assertNull(decoded.getEndTime());
+        assertNull(decoded.getTrace());
+        assertTrue(decoded.isDeleted());
+        assertTrue(decoded.getInvited().isEmpty());
+    }
+
+    @Test
+    void roundTripKeepsTheTrace() {
+        Trace trace = Trace.start("client.send", 1000).withHop("central.routed", 1500);
+        MeetingEnvelope meeting = sample().withTrace(trace);
+
+        MeetingEnvelope decoded = codec.decode(codec.encode(meeting));
+
+        assertEquals(trace.encode(), decoded.getTrace().encode());
+        assertEquals(meeting.getVersion(), decoded.getVersion());
+    }
+
+    @Test
+    void everyTruncationIsRejected() {
+        byte[] encoded = codec.encode(sample().withTrace(Trace.start("client.send", 1000)));
+
+        for (int length = 0; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        byte[] encoded = codec.encode(sample());
+        encoded[0] = (byte) (BinaryMeetingCodec.FORMAT_VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded));
+    }
+
+    @Test
+    void rejectsNameIndexOutsideTheDictionary() {
+        BinaryMeetingCodec larger = new BinaryMeetingCodec(
+                new NameDictionary(List.of("Alice_White", "Bob_Smith", "Carol_Simpson", "David_Black", "Eva_Brown")));
+        byte[] encoded = larger.encode(MeetingCodec.decode("UUID=u1\nORGANIZER=Eva_Brown"));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded));
+    }
+
+    @Test
+    void batchRoundTripWithAndWithoutCompression() {
+        List<MeetingEnvelope> meetings = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            meetings.add(sample().withInvited(List.of("Bob_Smith", "Carol_Simpson", "Invitado_" + i)));
+        }
+
+        for (boolean compress : new boolean[] {false, true}) {
+            List<MeetingEnvelope> decoded = codec.decodeBatch(codec.encodeBatch(meetings, compress), 1 << 20);
+
+            assertEquals(meetings.size(), decoded.size());
+            for (int i = 0; i < meetings.size(); i++) {
+                assertSameMeeting(meetings.get(i), decoded.get(i));
+            }
+        }
+    }
+
+    @Test
+    void compressionRoundTripAndLimits() {
+        byte[] data = new byte[10_000];
+        Arrays.fill(data, (byte) 'a');
+        byte[] compressed = BinaryMeetingCodec.compress(data);
+
+        assertArrayEquals(data, BinaryMeetingCodec.decompress(compressed, data.length));
+        assertThrows(IllegalArgumentException.class, () -> BinaryMeetingCodec.decompress(compressed, 1000));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryMeetingCodec.decompress(Arrays.copyOf(compressed, compressed.length / 2), data.length));
+    }
+}
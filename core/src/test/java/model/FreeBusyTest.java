@@ -0,0 +1,125 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FreeBusyTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+    private static LocalDateTime at(int hour) {
+        return DAY.plusHours(hour);
+    }
+
+    private static Meeting meeting(int startHour, int endHour) {
+        return new Meeting("t", List.of(), "Alice_White", "Sala 1", at(startHour), at(endHour));
+    }
+
+    private static List<String> text(List<FreeBusy.Slot> slots) {
+        List<String> text = new ArrayList<>();
+        for (FreeBusy.Slot slot : slots) {
+            text.add(slot.toString());
+        }
+        return text;
+    }
+
+    private static String slot(int startHour, int endHour) {
+        return at(startHour) + "/" + at(endHour);
+    }
+
+    private static FreeBusy.Query query(int fromHour, int toHour, int durationMinutes, int slots) {
+        return new FreeBusy.Query(List.of("Alice_White"), at(fromHour), at(toHour), durationMinutes, slots, null, null);
+    }
+
+    @Test
+    void mergesOverlappingAndContiguousMeetingsAcrossCalendars() {
+        List<List<Meeting>> calendars = List.of(
+                List.of(meeting(9, 10), meeting(13, 14)),
+                List.of(meeting(10, 11), meeting(9, 9)),
+                List.of(meeting(12, 15)));
+
+        List<FreeBusy.Slot> busy = FreeBusy.mergeBusy(calendars, at(0), at(24));
+
+        assertEquals(List.of(slot(9, 11), slot(12, 15)), text(busy));
+    }
+
+    @Test
+    void busyIntervalsAreClippedToTheWindow() {
+        List<List<Meeting>> calendars = List.of(List.of(meeting(7, 9), meeting(16, 20)));
+
+        List<FreeBusy.Slot> busy = FreeBusy.mergeBusy(calendars, at(8), at(18));
+
+        assertEquals(List.of(slot(8, 9), slot(16, 18)), text(busy));
+    }
+
+    @Test
+    void meetingsWithoutDurationDoNotBlockTime() {
+        Meeting noEnd = new Meeting("t", List.of(), "Alice_White", "Sala 1", at(10), null);
+
+        assertTrue(FreeBusy.mergeBusy(List.of(List.of(noEnd, meeting(11, 11))), at(0), at(24)).isEmpty());
+    }
+
+    @Test
+    void freeSlotsAreTheLongEnoughGaps() {
+        List<FreeBusy.Slot> busy = FreeBusy.mergeBusy(List.of(List.of(meeting(9, 11), meeting(13, 14))), at(8), at(18));
+
+        assertEquals(List.of(slot(8, 9), slot(11, 13), slot(14, 18)), text(FreeBusy.freeSlots(busy, query(8, 18, 60, 5))));
+        assertEquals(List.of(slot(11, 13), slot(14, 18)), text(FreeBusy.freeSlots(busy, query(8, 18, 90, 5))));
+        assertEquals(List.of(slot(8, 9)), text(FreeBusy.freeSlots(busy, query(8, 18, 60, 1))));
+        assertTrue(FreeBusy.freeSlots(busy, query(8, 18, 60, 0)).isEmpty());
+    }
+
+    @Test
+    void freeSlotsStayWithinTheDailyHours() {
+        FreeBusy.Query query = new FreeBusy.Query(List.of("Alice_White"), at(0), at(48), 60, 5,
+                LocalTime.of(9, 0), LocalTime.of(17, 0));
+        List<FreeBusy.Slot> busy = FreeBusy.mergeBusy(List.of(List.of(meeting(10, 16))), at(0), at(48));
+
+        assertEquals(List.of(slot(9, 10), slot(16, 17), slot(33, 41)), text(FreeBusy.freeSlots(busy, query)));
+    }
+
+    @Test
+    void queryRoundTrip() {
+        FreeBusy.Query query = new FreeBusy.Query(List.of("Alice_White", "@engineering"), at(8), at(18), 45, 3,
+                LocalTime.of(9, 0), LocalTime.of(17, 30));
+
+        FreeBusy.Query decoded = FreeBusy.Query.decode(query.encode());
+
+        assertEquals(query.encode(), decoded.encode());
+        assertEquals(List.of("Alice_White", "@engineering"), decoded.getEmployees());
+        assertEquals(45, decoded.getDurationMinutes());
+        assertEquals(3, decoded.getSlots());
+    }
+
+    @Test
+    void queryDefaultsAndValidation() {
+        FreeBusy.Query query = FreeBusy.Query.decode("EMPLOYEES=Bob_Smith\nFROM=" + at(8) + "\nTO=" + at(18));
+        assertEquals(FreeBusy.DEFAULT_DURATION_MINUTES, query.getDurationMinutes());
+        assertEquals(FreeBusy.DEFAULT_SLOTS, query.getSlots());
+
+        assertThrows(IllegalArgumentException.class, () -> FreeBusy.Query.decode("EMPLOYEES=Bob_Smith\nFROM=" + at(8)));
+        assertThrows(IllegalArgumentException.class, () -> FreeBusy.Query.decode("FROM=ayer\nTO=" + at(18)));
+        assertThrows(IllegalArgumentException.class, () -> query(18, 8, 30, 5));
+        assertThrows(IllegalArgumentException.class, () -> query(8, 18, 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new FreeBusy.Query(List.of(), at(8), at(18), 30, 5,
+                LocalTime.of(17, 0), LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void resultRoundTrip() {
+        List<FreeBusy.Slot> busy = FreeBusy.mergeBusy(List.of(List.of(meeting(9, 10))), at(8), at(12));
+        FreeBusy.Result result = new FreeBusy.Result(busy, FreeBusy.freeSlots(busy, query(8, 12, 30, 5)), List.of("Nadie"));
+
+        FreeBusy.Result decoded = FreeBusy.Result.decode(result.encode());
+
+        assertEquals(List.of(slot(9, 10)), text(decoded.getBusy()));
+        assertEquals(List.of(slot(8, 9), slot(10, 12)), text(decoded.getFree()));
+        assertEquals(List.of("Nadie"), decoded.getUnknown());
+    }
+}
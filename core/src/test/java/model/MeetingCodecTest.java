@@ -0,0 +1,114 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MeetingCodecTest {
+    private static final String TEXT = "UUID=6f1c2b9e-0d4a-4c3e-9a57-2f0e8c1d7b21\n"
+            + "TOPIC=Revisión del año\n"
+            + "ORGANIZER=Alice_White\n"
+            + "LOCATION=Sala 1\n"
+            + "START=2026-11-02T09:00:00\n"
+            + "END=2026-11-02T10:00:00\n"
+            + "LAST_MODIFIED=2026-10-01T08:30:00.125\n"
+            + "DELETED=false\n"
+            + "INVITED=Bob_Smith,Carol_Simpson";
+
+    @Test
+    void decodesEveryField() {
+        MeetingEnvelope envelope = MeetingCodec.decode(TEXT);
+
+        assertEquals("6f1c2b9e-0d4a-4c3e-9a57-2f0e8c1d7b21", envelope.getUuid());
+        assertEquals("Revisión del año", envelope.getTopic());
+        assertEquals("Alice_White", envelope.getOrganizer());
+        assertEquals("Sala 1", envelope.getLocation());
+        assertEquals(LocalDateTime.of(2026, 11, 2, 9, 0), envelope.getStartTime());
+        assertEquals(LocalDateTime.of(2026, 11, 2, 10, 0), envelope.getEndTime());
+        assertEquals(LocalDateTime.of(2026, 10, 1, 8, 30, 0, 125_000_000), envelope.getLastModified());
+        assertFalse(envelope.isDeleted());
+        assertEquals(List.of("Bob_Smith", "Carol_Simpson"), envelope.getInvited());
+        assertFalse(envelope.isPatch());
+    }
+
+    @Test
+    void keepsTheReceivedText() {
+        assertEquals(TEXT, MeetingCodec.decode(TEXT).getText());
+    }
+
+    @Test
+    void lastRepeatedKeyWins() {
+        MeetingEnvelope envelope = MeetingCodec.decode(TEXT + "\nTOPIC=Otro tema");
+
+        assertEquals("Otro tema", envelope.getTopic());
+    }
+
+    @Test
+    void trimsInviteesAndSkipsEmptyEntries() {
+        MeetingEnvelope envelope = MeetingCodec.decode("UUID=u1\nINVITED= Bob_Smith ,, Carol_Simpson,");
+
+        assertEquals(List.of("Bob_Smith", "Carol_Simpson"), envelope.getInvited());
+        assertTrue(envelope.isInvited("Carol_Simpson"));
+        assertFalse(envelope.isInvited("Alice_White"));
+    }
+
+    @Test
+    void deletedOnlyWhenExactlyTrue() {
+        assertTrue(MeetingCodec.decode("UUID=u1\nDELETED=TRUE").isDeleted());
+        assertFalse(MeetingCodec.decode("UUID=u1\nDELETED=trueish").isDeleted());
+    }
+
+    @Test
+    void ignoresUnknownLinesAndMissingFields() {
+        MeetingEnvelope envelope = MeetingCodec.decode("UUID=u1\nCOLOR=azul\nsin separador");
+
+        assertEquals("u1", envelope.getUuid());
+        assertNull(envelope.getTopic());
+        assertNull(envelope.getStartTime());
+        assertTrue(envelope.getInvited().isEmpty());
+    }
+
+    @Test
+    void meetingSurvivesEncodeAndDecode() {
+        Meeting meeting = new Meeting("Planificación", List.of("Bob_Smith"), "Alice_White", "Sala 2",
+                LocalDateTime.of(2026, 11, 3, 15, 0), LocalDateTime.of(2026, 11, 3, 16, 30));
+
+        Meeting decoded = Meeting.fromStringFormat(meeting.toStringFormat());
+
+        assertEquals(meeting.getUuid(), decoded.getUuid());
+        assertEquals(meeting.getTopic(), decoded.getTopic());
+        assertEquals(meeting.getOrganizer(), decoded.getOrganizer());
+        assertEquals(meeting.getLocation(), decoded.getLocation());
+        assertEquals(meeting.getStartTime(), decoded.getStartTime());
+        assertEquals(meeting.getEndTime(), decoded.getEndTime());
+        assertEquals(meeting.getVersion(), decoded.getVersion());
+        assertEquals(meeting.getInvitedEmployees(), decoded.getInvitedEmployees());
+        assertEquals(meeting.toStringFormat(), decoded.toStringFormat());
+    }
+
+    @Test
+    void withInvitedReplacesOnlyTheInvitedLine() {
+        MeetingEnvelope envelope = MeetingCodec.decode(TEXT).withInvited(List.of("David_Black"));
+
+        assertEquals(List.of("David_Black"), envelope.getInvited());
+        assertEquals("Revisión del año", envelope.getTopic());
+        assertEquals(TEXT.replace("INVITED=Bob_Smith,Carol_Simpson", "INVITED=David_Black"), envelope.getText());
+    }
+
+    @Test
+    void traceTravelsOnItsOwnLine() {
+        Trace trace = Trace.start("client.send", 1000);
+        MeetingEnvelope traced = MeetingCodec.decode(TEXT).withTrace(trace);
+
+        MeetingEnvelope decoded = MeetingCodec.decode(traced.getText());
+
+        assertEquals(trace.getId(), decoded.getTrace().getId());
+        assertEquals("Revisión del año", decoded.getTopic());
+        assertFalse(MeetingCodec.decode(traced.getText()).withTrace(null).getText().contains("TRACE="));
+    }
+}
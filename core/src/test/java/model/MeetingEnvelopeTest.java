@@ -0,0 +1,150 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class MeetingEnvelopeTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+    private static Meeting original() {
+        Meeting meeting = new Meeting("Revisión", List.of("Bob_Smith", "Carol_Simpson"), "Alice_White", "Sala 1",
+                DAY.plusHours(9), DAY.plusHours(10));
+        meeting.setVersion(100);
+        return meeting;
+    }
+
+    // Copia de meeting con la versión dada, tras aplicarle los cambios
+    private static Meeting edited(Meeting meeting, long version, Consumer<Meeting> changes) {
+        Meeting copy = meeting.copy();
+        changes.accept(copy);
+        copy.setVersion(version);
+        return copy;
+    }
+
+    @Test
+    void patchCarriesOnlyWhatChanged() {
+        Meeting original = original();
+        Meeting updated = edited(original, 200, m -> {
+            m.setLocation("Sala 2");
+            m.removeInvitedEmployee("Carol_Simpson");
+            m.addInvitedEmployee("David_Black");
+        });
+
+        MeetingEnvelope patch = MeetingEnvelope.patch(original, updated);
+
+        assertTrue(patch.isPatch());
+        assertEquals(100, patch.getBaseVersion());
+        assertEquals(200, patch.getVersion());
+        assertNull(patch.getTopic());
+        assertNull(patch.getStartTime());
+        assertEquals("Sala 2", patch.getLocation());
+        assertEquals(List.of("David_Black"), patch.getInvitedAdded());
+        assertEquals(List.of("Carol_Simpson"), patch.getInvitedRemoved());
+    }
+
+    @Test
+    void noPatchForAMeetingWithoutVersion() {
+        Meeting legacy = original();
+        legacy.setVersion(0);
+
+        assertNull(MeetingEnvelope.patch(legacy, edited(legacy, 200, m -> m.setTopic("otro"))));
+    }
+
+    @Test
+    void applyingThePatchGivesTheUpdatedMeeting() {
+        Meeting original = original();
+        Meeting updated = edited(original, 200, m -> {
+            m.setTopic("Revisión anual");
+            m.setStartTime(DAY.plusHours(15));
+            m.setEndTime(DAY.plusHours(16));
+            m.removeInvitedEmployee("Bob_Smith");
+            m.addInvitedEmployee("Eva_Brown");
+        });
+
+        Meeting applied = MeetingEnvelope.patch(original, updated).applyTo(original);
+
+        assertEquals(updated.toStringFormat(), applied.toStringFormat());
+        // La base no cambia
+        assertEquals(100, original.getVersion());
+        assertEquals(List.of("Bob_Smith", "Carol_Simpson"), original.getInvitedEmployees());
+    }
+
+    @Test
+    void patchSurvivesTheTextFormat() {
+        Meeting original = original();
+        Meeting updated = edited(original, 200, m -> {
+            m.setLocation("Sala 2");
+            m.addInvitedEmployee("David_Black");
+            m.removeInvitedEmployee("Bob_Smith");
+        });
+        MeetingEnvelope patch = MeetingEnvelope.patch(original, updated);
+
+        MeetingEnvelope decoded = MeetingCodec.decode(patch.getText());
+
+        assertTrue(decoded.isPatch());
+        assertEquals(100, decoded.getBaseVersion());
+        assertEquals(200, decoded.getVersion());
+        assertEquals(List.of("David_Black"), decoded.getInvitedAdded());
+        assertEquals(List.of("Bob_Smith"), decoded.getInvitedRemoved());
+        assertEquals(updated.toStringFormat(), decoded.applyTo(original).toStringFormat());
+        assertThrows(IllegalStateException.class, decoded::toMeeting);
+    }
+
+    @Test
+    void mergingAPatchIntoAFullMeetingGivesTheFullResult() {
+        Meeting original = original();
+        Meeting updated = edited(original, 200, m -> m.setLocation("Sala 2"));
+
+        MeetingEnvelope merged = MeetingEnvelope.merge(MeetingEnvelope.of(original),
+                MeetingEnvelope.patch(original, updated));
+
+        assertFalse(merged.isPatch());
+        assertEquals(updated.toStringFormat(), merged.toMeeting().toStringFormat());
+    }
+
+    @Test
+    void mergingTwoPatchesEqualsApplyingBoth() {
+        Meeting original = original();
+        Meeting second = edited(original, 200, m -> {
+            m.setLocation("Sala 2");
+            m.addInvitedEmployee("David_Black");
+        });
+        Meeting third = edited(second, 300, m -> {
+            m.setTopic("Revisión anual");
+            m.removeInvitedEmployee("David_Black");
+            m.removeInvitedEmployee("Bob_Smith");
+        });
+
+        MeetingEnvelope merged = MeetingEnvelope.merge(MeetingEnvelope.patch(original, second),
+                MeetingEnvelope.patch(second, third));
+
+        assertTrue(merged.isPatch());
+        assertEquals(100, merged.getBaseVersion());
+        assertEquals(300, merged.getVersion());
+        // David_Black se añadió y se quitó: solo queda la eliminación
+        assertTrue(merged.getInvitedAdded().isEmpty());
+        assertEquals(third.toStringFormat(), merged.applyTo(original).toStringFormat());
+    }
+
+    @Test
+    void mergeKeepsTheNewerFullMeetingOrRefusesAMismatchedBase() {
+        Meeting original = original();
+        Meeting second = edited(original, 200, m -> m.setLocation("Sala 2"));
+        Meeting third = edited(second, 300, m -> m.setTopic("otro"));
+
+        MeetingEnvelope full = MeetingEnvelope.of(third);
+        assertSame(full, MeetingEnvelope.merge(MeetingEnvelope.patch(original, second), full));
+
+        // El parche de third se basa en la versión 200; el pendiente es la 100
+        assertNull(MeetingEnvelope.merge(MeetingEnvelope.of(original), MeetingEnvelope.patch(second, third)));
+    }
+}
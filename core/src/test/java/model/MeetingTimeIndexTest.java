@@ -0,0 +1,83 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MeetingTimeIndexTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+    private static Meeting meeting(String topic, int startHour, int endHour) {
+        return new Meeting(topic, List.of(), "Alice_White", "Sala 1", DAY.plusHours(startHour), DAY.plusHours(endHour));
+    }
+
+    private static List<String> topics(List<Meeting> meetings) {
+        List<String> topics = new ArrayList<>();
+        for (Meeting meeting : meetings) {
+            topics.add(meeting.getTopic());
+        }
+        return topics;
+    }
+
+    @Test
+    void answersRangeAndNextQueries() {
+        MeetingTimeIndex index = new MeetingTimeIndex();
+        index.put(meeting("b", 10, 11));
+        index.put(meeting("a", 9, 10));
+        index.put(meeting("c", 14, 16));
+
+        assertEquals(List.of("a", "b"), topics(index.between(DAY.plusHours(9), DAY.plusHours(12))));
+        assertEquals(List.of("c"), topics(index.between(DAY.plusHours(15), DAY.plusHours(20))));
+        assertEquals(List.of("b", "c"), topics(index.next(DAY.plusHours(10), 5)));
+        assertEquals(List.of("a", "b", "c"), topics(index.all()));
+    }
+
+    @Test
+    void deletedAndUndatedMeetingsAreNotIndexed() {
+        MeetingTimeIndex index = new MeetingTimeIndex();
+        Meeting meeting = meeting("a", 9, 10);
+        index.put(meeting);
+
+        Meeting deleted = meeting.copy();
+        deleted.markAsDeleted();
+        index.put(deleted);
+        index.put(new Meeting("sin fecha", List.of(), "Alice_White", "Sala 1", null, null));
+
+        assertEquals(0, index.size());
+        assertNull(index.get(meeting.getUuid()));
+    }
+
+    @Test
+    void movingAMeetingReplacesItsInterval() {
+        MeetingTimeIndex index = new MeetingTimeIndex();
+        Meeting meeting = meeting("a", 9, 10);
+        index.put(meeting);
+
+        Meeting moved = meeting.copy();
+        moved.setStartTime(DAY.plusHours(18));
+        moved.setEndTime(DAY.plusHours(19));
+        index.put(moved);
+
+        assertEquals(1, index.size());
+        assertTrue(index.between(DAY.plusHours(9), DAY.plusHours(10)).isEmpty());
+        assertEquals(List.of("a"), topics(index.between(DAY.plusHours(18), DAY.plusHours(19))));
+    }
+
+    @Test
+    void conflictsExcludeTheMeetingItself() {
+        MeetingTimeIndex index = new MeetingTimeIndex();
+        Meeting meeting = meeting("a", 9, 11);
+        index.put(meeting);
+        index.put(meeting("b", 10, 12));
+        index.put(meeting("c", 11, 12));
+
+        assertEquals(List.of("b"), topics(index.conflictsWith(meeting)));
+        assertTrue(index.conflictsWith(new Meeting("sin fecha", List.of(), "Alice_White", "Sala 1", null, null))
+                .isEmpty());
+    }
+}
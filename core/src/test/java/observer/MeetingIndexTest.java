@@ -0,0 +1,164 @@
+package observer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import model.Meeting;
+import model.MeetingEnvelope;
+import org.junit.jupiter.api.Test;
+
+class MeetingIndexTest {
+    private static final String ORGANIZER = "Alice_White";
+    private static final String INVITEE = "Bob_Smith";
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+    private static Meeting meeting(long version) {
+        Meeting meeting = new Meeting("t", List.of(INVITEE), ORGANIZER, "Sala 1", DAY.plusHours(9), DAY.plusHours(10));
+        meeting.setVersion(version);
+        return meeting;
+    }
+
+    private static Meeting version(Meeting meeting, long version) {
+        Meeting copy = meeting.copy();
+        copy.setVersion(version);
+        return copy;
+    }
+
+    private static Meeting deleted(Meeting meeting, long version) {
+        Meeting copy = version(meeting, version);
+        copy.markAsDeleted();
+        return copy;
+    }
+
+    @Test
+    void newMeetingsAreAppended() {
+        MeetingIndex index = new MeetingIndex();
+        Meeting meeting = meeting(100);
+
+        assertEquals(MeetingIndex.Change.APPENDED, index.apply(meeting, INVITEE));
+        assertSame(meeting, index.get(meeting.getUuid()));
+        assertEquals(1, index.getTimeIndex().size());
+    }
+
+    @Test
+    void deletionOfAnUnknownMeetingIsIgnoredExceptForTheOrganizer() {
+        Meeting tombstone = deleted(meeting(100), 100);
+
+        assertEquals(MeetingIndex.Change.IGNORED, new MeetingIndex().apply(tombstone, INVITEE));
+        assertEquals(MeetingIndex.Change.APPENDED, new MeetingIndex().apply(tombstone, ORGANIZER));
+    }
+
+    @Test
+    void newerVersionsWinAndOlderOnesAreKept() {
+        MeetingIndex index = new MeetingIndex();
+        Meeting meeting = meeting(100);
+        index.apply(meeting, INVITEE);
+
+        assertEquals(MeetingIndex.Change.KEPT, index.apply(version(meeting, 99), INVITEE));
+        assertEquals(100, index.get(meeting.getUuid()).getVersion());
+
+        assertEquals(MeetingIndex.Change.REPLACED, index.apply(version(meeting, 101), INVITEE));
+        assertEquals(101, index.get(meeting.getUuid()).getVersion());
+    }
+
+    @Test
+    void sameVersionIsTheSameChangeDeliveredAgain() {
+        MeetingIndex index = new MeetingIndex();
+        Meeting meeting = meeting(100);
+        index.apply(meeting, INVITEE);
+
+        assertEquals(MeetingIndex.Change.KEPT, index.apply(version(meeting, 100), INVITEE));
+        assertSame(meeting, index.get(meeting.getUuid()));
+    }
+
+    @Test
+    void legacyMeetingsWithoutVersionAreAlwaysReplaced() {
+        MeetingIndex index = new MeetingIndex();
+        Meeting meeting = meeting(0);
+        index.apply(meeting, INVITEE);
+
+        assertEquals(MeetingIndex.Change.REPLACED, index.apply(version(meeting, 0), INVITEE));
+        assertEquals(MeetingIndex.Change.REPLACED, index.apply(version(meeting, 50), INVITEE));
+        assertEquals(MeetingIndex.Change.REPLACED, index.apply(version(meeting, 0), INVITEE));
+        assertEquals(MeetingIndex.Change.REMOVED, index.apply(deleted(meeting, 0), INVITEE));
+    }
+
+    @Test
+    void deletionRemovesTheMeetingOnlyForListedInvitees() {
+        Meeting meeting = meeting(100);
+
+        MeetingIndex invitee = new MeetingIndex();
+        invitee.apply(meeting, INVITEE);
+        assertEquals(MeetingIndex.Change.REMOVED, invitee.apply(deleted(meeting, 101), INVITEE));
+        assertNull(invitee.get(meeting.getUuid()));
+        assertEquals(0, invitee.getTimeIndex().size());
+
+        // Eliminación de un parche de invitados que no nombra a este empleado
+        MeetingIndex other = new MeetingIndex();
+        other.apply(meeting, "Carol_Simpson");
+        assertEquals(MeetingIndex.Change.KEPT, other.apply(deleted(meeting, 101), "Carol_Simpson"));
+
+        MeetingIndex organizer = new MeetingIndex();
+        organizer.apply(meeting, ORGANIZER);
+        assertEquals(MeetingIndex.Change.KEPT, organizer.apply(deleted(meeting, 101), ORGANIZER));
+    }
+
+    @Test
+    void staleDeletionIsKept() {
+        MeetingIndex index = new MeetingIndex();
+        Meeting meeting = meeting(100);
+        index.apply(meeting, INVITEE);
+
+        assertEquals(MeetingIndex.Change.KEPT, index.apply(deleted(meeting, 99), INVITEE));
+        assertSame(meeting, index.get(meeting.getUuid()));
+    }
+
+    @Test
+    void patchIsAppliedOnItsBaseVersion() {
+        MeetingIndex index = new MeetingIndex();
+        Meeting original = meeting(100);
+        index.apply(original, INVITEE);
+        Meeting updated = original.copy();
+        updated.setLocation("Sala 2");
+        updated.setStartTime(DAY.plusHours(15));
+        updated.setEndTime(DAY.plusHours(16));
+        updated.setVersion(200);
+
+        assertEquals(MeetingIndex.Change.REPLACED, index.applyPatch(MeetingEnvelope.patch(original, updated)));
+
+        Meeting applied = index.get(original.getUuid());
+        assertEquals("Sala 2", applied.getLocation());
+        assertEquals(200, applied.getVersion());
+        assertTrue(index.getTimeIndex().between(DAY.plusHours(9), DAY.plusHours(10)).isEmpty());
+        assertEquals(1, index.getTimeIndex().between(DAY.plusHours(15), DAY.plusHours(16)).size());
+    }
+
+    @Test
+    void patchWithoutItsBaseIsIgnoredAndAnOldOneKept() {
+        Meeting original = meeting(100);
+        Meeting updated = version(original, 200);
+        updated.setTopic("otro");
+        updated.setVersion(200);
+        MeetingEnvelope patch = MeetingEnvelope.patch(original, updated);
+
+        assertEquals(MeetingIndex.Change.IGNORED, new MeetingIndex().applyPatch(patch));
+
+        MeetingIndex missedBase = new MeetingIndex();
+        missedBase.apply(version(original, 50), INVITEE);
+        assertEquals(MeetingIndex.Change.IGNORED, missedBase.applyPatch(patch));
+        assertEquals(50, missedBase.get(original.getUuid()).getVersion());
+
+        MeetingIndex legacy = new MeetingIndex();
+        legacy.apply(version(original, 0), INVITEE);
+        assertEquals(MeetingIndex.Change.IGNORED, legacy.applyPatch(patch));
+
+        MeetingIndex ahead = new MeetingIndex();
+        ahead.apply(version(original, 300), INVITEE);
+        assertEquals(MeetingIndex.Change.KEPT, ahead.applyPatch(patch));
+        assertEquals("t", ahead.get(original.getUuid()).getTopic());
+    }
+}
@@ -0,0 +1,81 @@
+package observer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+import model.Meeting;
+import model.MeetingEnvelope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MeetingUpdateObserverTest {
+    private static final String EMPLOYEE = "Bob_Smith";
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+    @TempDir
+    File directory;
+
+    private final MeetingIndex index = new MeetingIndex();
+
+    private MeetingUpdateObserver observer() {
+        MeetingStore store = new MeetingStore(EMPLOYEE, new File(directory, EMPLOYEE + "_meetings.txt").getPath(),
+                index, false, 64, 60, WriteDurability.BATCH, 2);
+        return new MeetingUpdateObserver(EMPLOYEE, index, store);
+    }
+
+    private static Meeting meeting(long version) {
+        Meeting meeting = new Meeting("t", List.of(EMPLOYEE), "Alice_White", "Sala 1", DAY.plusHours(9), DAY.plusHours(10));
+        meeting.setVersion(version);
+        return meeting;
+    }
+
+    private static MeetingEnvelope locationPatch(Meeting base, long version) {
+        Meeting updated = base.copy();
+        updated.setLocation("Sala 2");
+        updated.setVersion(version);
+        return MeetingEnvelope.patch(base, updated);
+    }
+
+    @Test
+    void patchOnItsBaseIsApplied() {
+        MeetingUpdateObserver observer = observer();
+        Meeting base = meeting(100);
+        observer.update(MeetingEnvelope.of(base));
+
+        observer.update(locationPatch(base, 200));
+
+        assertEquals("Sala 2", index.get(base.getUuid()).getLocation());
+    }
+
+    @Test
+    void patchWithoutItsBaseIsRefused() {
+        MeetingUpdateObserver observer = observer();
+        Meeting base = meeting(100);
+        Meeting older = base.copy();
+        older.setVersion(50);
+        observer.update(MeetingEnvelope.of(older));
+
+        MissingBaseException missing = assertThrows(MissingBaseException.class,
+                () -> observer.update(locationPatch(base, 200)));
+
+        assertEquals("meeting " + base.getUuid() + " is not at version 100 for " + EMPLOYEE, missing.getMessage());
+        assertEquals(50, index.get(base.getUuid()).getVersion());
+        // Sin ninguna versión de la reunión tampoco hay base
+        assertThrows(MissingBaseException.class, () -> observer.update(locationPatch(meeting(100), 200)));
+    }
+
+    @Test
+    void patchWithoutBaseDoesNotStopTheRestOfABatch() {
+        MeetingUpdateObserver observer = observer();
+        Meeting base = meeting(100);
+        Meeting other = meeting(300);
+
+        observer.updateBatch(List.of(locationPatch(base, 200), MeetingEnvelope.of(other)));
+
+        assertEquals(1, index.size());
+        assertEquals(300, index.get(other.getUuid()).getVersion());
+    }
+}
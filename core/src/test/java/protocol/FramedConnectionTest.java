@@ -0,0 +1,63 @@
+package protocol;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class FramedConnectionTest {
+    private static final byte[] EMPTY = new byte[0];
+
+    @Test
+    void timedOutRequestIsNoLongerPending() throws Exception {
+        try (ServerSocket server = new ServerSocket(0);
+             FramedConnection connection = FramedConnection.connect(
+                     new InetSocketAddress("localhost", server.getLocalPort()), 1000);
+             Socket peer = server.accept()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(peer.getInputStream()));
+            DataOutputStream out = new DataOutputStream(peer.getOutputStream());
+
+            CompletableFuture<Frame> response = connection.request(FrameType.PING, EMPTY);
+            Frame request = FrameCodec.read(in);
+            assertThrows(AckTimeoutException.class, () -> FramedConnection.awaitAck(response, 50));
+
+            assertEquals(0, connection.getPendingCount());
+            assertTrue(connection.isOpen());
+
+            // La respuesta tardía se ignora y la conexión sigue sirviendo
+            FrameCodec.write(out, new Frame(FrameType.PONG, request.getMessageId(), EMPTY));
+            CompletableFuture<Frame> next = connection.request(FrameType.PING, EMPTY);
+            FrameCodec.write(out, new Frame(FrameType.PONG, FrameCodec.read(in).getMessageId(), EMPTY));
+            out.flush();
+            assertEquals(FrameType.PONG, FramedConnection.awaitAck(next, 5000).getType());
+            assertEquals(0, connection.getPendingCount());
+        }
+    }
+
+    @Test
+    void nackIsReportedAsRejection() throws Exception {
+        try (ServerSocket server = new ServerSocket(0);
+             FramedConnection connection = FramedConnection.connect(
+                     new InetSocketAddress("localhost", server.getLocalPort()), 1000);
+             Socket peer = server.accept()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(peer.getInputStream()));
+            DataOutputStream out = new DataOutputStream(peer.getOutputStream());
+
+            CompletableFuture<Frame> response = connection.request(FrameType.MEETING, EMPTY);
+            FrameCodec.write(out, Frame.text(FrameType.NACK, FrameCodec.read(in).getMessageId(), "no"));
+            out.flush();
+
+            RejectedException rejected = assertThrows(RejectedException.class,
+                    () -> FramedConnection.awaitAck(response, 5000));
+            assertEquals("no", rejected.getReason());
+        }
+    }
+}
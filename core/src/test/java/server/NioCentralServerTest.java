@@ -0,0 +1,78 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import protocol.Frame;
+import protocol.FrameType;
+import protocol.FramedConnection;
+
+class NioCentralServerTest {
+    private static final int MAX_IN_FLIGHT = 8;
+    private static int port;
+    // Último número de petición atendido, para comprobar el orden
+    private static final AtomicLong lastHandled = new AtomicLong(-1);
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        NioCentralServer server = new NioCentralServer(port, 1, 4, MAX_IN_FLIGHT, request -> {
+            long number = Long.parseLong(request.getPayloadAsString().substring(0, 8).trim());
+            if (!lastHandled.compareAndSet(number - 1, number)) {
+                throw new IllegalStateException("out of order: " + number + " after " + lastHandled.get());
+            }
+            return request.getPayload();
+        });
+        Thread thread = new Thread(server::start, "nio-test");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static FramedConnection connect() throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return FramedConnection.connect(new InetSocketAddress("localhost", port), 1000);
+            } catch (IOException e) {
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    @Test
+    void pipelinedFramesBeyondOneFrameSizeAreAnsweredInOrder() throws Exception {
+        // 600 frames de 8 KiB: casi 5 MiB enviados sin esperar, mucho más que un frame máximo
+        byte[] padding = new byte[8 * 1024 - 8];
+        Arrays.fill(padding, (byte) 'x');
+        try (FramedConnection connection = connect()) {
+            List<CompletableFuture<Frame>> responses = new ArrayList<>();
+            for (int i = 0; i < 600; i++) {
+                byte[] payload = new byte[8 + padding.length];
+                byte[] number = String.format("%8d", i).getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(number, 0, payload, 0, 8);
+                System.arraycopy(padding, 0, payload, 8, padding.length);
+                responses.add(connection.request(FrameType.MEETING, payload));
+            }
+            for (int i = 0; i < responses.size(); i++) {
+                Frame ack = FramedConnection.awaitAck(responses.get(i), 10_000);
+                assertEquals(FrameType.ACK, ack.getType());
+                assertEquals(String.format("%8d", i), ack.getPayloadAsString().substring(0, 8));
+            }
+            assertEquals(599, lastHandled.get());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+
+class HybridClockTest {
+    private static final long NODE_MASK = (1 << 12) - 1;
+
+    @Test
+    void versionsAlwaysIncrease() {
+        long previous = HybridClock.now();
+        for (int i = 0; i < 100_000; i++) {
+            long next = HybridClock.now();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void physicalPartFollowsTheWallClock() {
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime physical = HybridClock.toDateTime(HybridClock.now());
+
+        assertTrue(!physical.isBefore(before.minusSeconds(1)));
+        assertTrue(Duration.between(before, physical).abs().toSeconds() < 5);
+    }
+
+    @Test
+    void anEditBeatsAVersionFromAClockThatIsAhead() {
+        // Poco adelantado: el reloj es global y las demás pruebas comparan con la hora real
+        long ahead = HybridClock.fromDateTime(LocalDateTime.now().plusSeconds(2));
+
+        long edit = HybridClock.after(ahead);
+
+        assertTrue(edit > ahead);
+        // El reloj de este proceso ya no genera versiones anteriores a la observada
+        assertTrue(HybridClock.now() > edit);
+    }
+
+    @Test
+    void lowBitsCarryTheNode() {
+        int node = HybridClock.getNode();
+
+        assertTrue(node > 0 && node <= NODE_MASK);
+        assertEquals(node, HybridClock.now() & NODE_MASK);
+        assertEquals(node, HybridClock.after(HybridClock.fromDateTime(LocalDateTime.now())) & NODE_MASK);
+    }
+
+    @Test
+    void legacyDatesConvertBothWaysAtMillisecondPrecision() {
+        LocalDateTime modified = LocalDateTime.of(2026, 10, 1, 9, 0, 0, 123_456_789);
+
+        long version = HybridClock.fromDateTime(modified);
+
+        assertEquals(modified.truncatedTo(ChronoUnit.MILLIS), HybridClock.toDateTime(version));
+        // Las versiones deducidas usan el nodo 0, que no tiene ningún proceso
+        assertEquals(0, version & NODE_MASK);
+        assertTrue(version < HybridClock.fromDateTime(modified.plusNanos(1_000_000)));
+        assertEquals(0, HybridClock.fromDateTime(null));
+    }
+}
@@ -0,0 +1,150 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntervalTreeTest {
+    // Intervalo de referencia para comparar con una búsqueda lineal
+    private record Interval(String id, int start, int end) {
+    }
+
+    private static final Comparator<Interval> BY_START =
+            Comparator.comparingInt(Interval::start).thenComparing(Interval::id);
+
+    private static List<String> ids(List<Interval> intervals) {
+        List<String> ids = new ArrayList<>();
+        for (Interval interval : intervals) {
+            ids.add(interval.id());
+        }
+        return ids;
+    }
+
+    private static List<String> expectedOverlapping(Map<String, Interval> intervals, int from, int to) {
+        List<Interval> result = new ArrayList<>();
+        for (Interval interval : intervals.values()) {
+            if (interval.start() < to && (interval.end() > from || interval.start() >= from)) {
+                result.add(interval);
+            }
+        }
+        result.sort(BY_START);
+        return ids(result);
+    }
+
+    private static List<String> expectedFrom(Map<String, Interval> intervals, int from, int limit) {
+        List<Interval> result = new ArrayList<>();
+        for (Interval interval : intervals.values()) {
+            if (interval.start() >= from) {
+                result.add(interval);
+            }
+        }
+        result.sort(BY_START);
+        return ids(result.subList(0, Math.min(limit, result.size())));
+    }
+
+    @Test
+    void matchesALinearScanUnderRandomUpdates() {
+        Random random = new Random(42);
+        IntervalTree<Integer, Interval> tree = new IntervalTree<>();
+        Map<String, Interval> reference = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            String id = "m" + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                Interval removed = tree.remove(id);
+                assertEquals(reference.remove(id), removed);
+            } else {
+                int start = random.nextInt(10_000);
+                // Algunos vacíos y algunos muy largos, para que maxEnd importe
+                int length = random.nextInt(10) == 0 ? random.nextInt(3_000) : random.nextInt(60);
+                Interval interval = new Interval(id, start, start + length);
+                tree.put(id, interval.start(), interval.end(), interval);
+                reference.put(id, interval);
+            }
+
+            if (step % 100 == 0) {
+                assertEquals(reference.size(), tree.size());
+                int from = random.nextInt(10_000);
+                int to = from + random.nextInt(500);
+                assertEquals(expectedOverlapping(reference, from, to), ids(tree.overlapping(from, to)));
+                int limit = 1 + random.nextInt(20);
+                assertEquals(expectedFrom(reference, from, limit), ids(tree.startingFrom(from, limit)));
+            }
+        }
+        List<Interval> all = new ArrayList<>(reference.values());
+        all.sort(BY_START);
+        assertEquals(ids(all), ids(tree.values()));
+    }
+
+    @Test
+    void putReplacesTheIntervalWithTheSameId() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.put("a", 10, 20, "first");
+        tree.put("a", 100, 120, "second");
+
+        assertEquals(1, tree.size());
+        assertEquals("second", tree.get("a"));
+        assertTrue(tree.overlapping(10, 20).isEmpty());
+        assertEquals(List.of("second"), tree.overlapping(110, 111));
+    }
+
+    @Test
+    void rangeIsHalfOpen() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.put("a", 10, 20, "a");
+
+        assertTrue(tree.overlapping(20, 30).isEmpty());
+        assertTrue(tree.overlapping(0, 10).isEmpty());
+        assertEquals(List.of("a"), tree.overlapping(19, 30));
+        assertEquals(List.of("a"), tree.overlapping(0, 11));
+    }
+
+    @Test
+    void emptyIntervalsCountWhenTheirStartIsInRange() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.put("point", 15, 15, "point");
+        // Un fin anterior al inicio se trata como vacío
+        tree.put("backwards", 30, 25, "backwards");
+
+        assertEquals(List.of("point"), tree.overlapping(15, 16));
+        assertTrue(tree.overlapping(10, 15).isEmpty());
+        assertEquals(List.of("backwards"), tree.overlapping(30, 31));
+        assertTrue(tree.overlapping(26, 30).isEmpty());
+    }
+
+    @Test
+    void equalStartsAreOrderedById() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.put("b", 5, 10, "b");
+        tree.put("a", 5, 8, "a");
+        tree.put("c", 1, 6, "c");
+
+        assertEquals(List.of("c", "a", "b"), tree.values());
+        assertEquals(List.of("a", "b"), tree.startingFrom(5, 10));
+        assertEquals(List.of("a"), tree.startingFrom(5, 1));
+    }
+
+    @Test
+    void removeAndClear() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.put("a", 1, 2, "a");
+        tree.put("b", 3, 4, "b");
+
+        assertEquals("a", tree.remove("a"));
+        assertNull(tree.remove("a"));
+        assertNull(tree.get("a"));
+        assertEquals(List.of("b"), tree.values());
+
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertTrue(tree.overlapping(0, 100).isEmpty());
+    }
+}
@@ -24,6 +24,7 @@ services:
     volumes:
       - ./data:/app/data
       - ./employees.properties:/app/employees.properties
+      - ./groups.properties:/app/groups.properties
 
 EOF
 
@@ -24,6 +24,7 @@ echo       - meeting-network >> %OUTPUT_FILE%
 echo     volumes: >> %OUTPUT_FILE%
 echo       - ./data:/app/data >> %OUTPUT_FILE%
 echo       - ./employees.properties:/app/employees.properties >> %OUTPUT_FILE%
+echo       - ./groups.properties:/app/groups.properties >> %OUTPUT_FILE%
 echo. >> %OUTPUT_FILE%
 
 :: Procesamiento del archivo de propiedades
@@ -1,38 +1,67 @@
 package client;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import model.FreeBusy;
 import model.Meeting;
+import model.MeetingEnvelope;
+import model.Trace;
+import protocol.Frame;
+import protocol.FrameType;
+import protocol.FramedConnection;
+import protocol.RejectedException;
+import protocol.WireFormat;
+import util.HybridClock;
 import util.PropertiesUtil;
+import util.Settings;
+import util.TraceLog;
 
 public class EmployeeClient {
     private String employeeName;
-    private static final int CENTRAL_SERVER_PORT = 9090;
-    private static final String CENTRAL_SERVER_HOST = "central-server";
+    // Configurables para lanzar clientes fuera de Docker (p. ej. LoadGenerator contra localhost)
+    private static final int CENTRAL_SERVER_PORT = Settings.getInt("CENTRAL_SERVER_PORT", 9090);
+    private static final String CENTRAL_SERVER_HOST = Settings.getString("CENTRAL_SERVER_HOST", "central-server");
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final long ACK_TIMEOUT_MS = 30000;
     private String meetingsFilePath;
+    // Conexión persistente con el servidor central; las actualizaciones se envían en pipeline
+    private FramedConnection centralConnection;
+    private MeetingCache meetingCache;
     
     public EmployeeClient(String employeeName) {
         this.employeeName = employeeName;
         this.meetingsFilePath = "/app/data/" + employeeName + "_meetings.txt";
+        // Un archivo por proceso: con LoadGenerator todos los clientes comparten el del primero
+        TraceLog.open("client-" + employeeName);
     }
     
-    public void createMeeting(String topic, List<String> invitedEmployees, String location, 
+    // Devuelve la reunión creada, o null si el servidor central no confirmó el envío
+    public Meeting createMeeting(String topic, List<String> invitedEmployees, String location, 
                              LocalDateTime startTime, LocalDateTime endTime) {
         Meeting meeting = new Meeting(topic, invitedEmployees, employeeName, location, startTime, endTime);
-        sendMeetingToCentralServer(meeting);
+        return awaitDelivery(sendMeetingToCentralServer(meeting)) ? meeting : null;
     }
     
-    public void modifyMeeting(Meeting meeting, List<String> previousInvitees) {
-        meeting.setLastModified(LocalDateTime.now());
+    // Las operaciones devuelven false si el envío falló o algún destinatario lo rechazó.
+    // original es la reunión como estaba antes de editarla: si el servidor central acepta parches
+    // se envía solo lo que cambió, en un único mensaje; si no, la reunión completa.
+    public boolean modifyMeeting(Meeting meeting, Meeting original) {
+        // Mayor que la versión editada aunque este reloj vaya por detrás del que la creó
+        meeting.setVersion(HybridClock.after(original.getVersion()));
+        Boolean patched = sendPatch(original, meeting);
+        return patched != null ? patched : sendModification(meeting, original.getInvitedEmployees());
+    }
+    
+    // Envío sin parches: la eliminación para los invitados quitados y después la reunión completa
+    private boolean sendModification(Meeting meeting, List<String> previousInvitees) {
         
         // Verificar si se eliminaron invitados
         List<String> currentInvitees = meeting.getInvitedEmployees();
@@ -46,6 +75,7 @@ public class EmployeeClient {
         }
         
         // Paso 1: Enviar notificaciones de eliminación a los empleados que ya no están invitados
+        CompletableFuture<Frame> removalSent = null;
         if (!removedInvitees.isEmpty()) {
             
             // Crear una copia de la reunión marcada como eliminada
@@ -62,90 +92,263 @@ public class EmployeeClient {
             deletedMeeting.setUuid(meeting.getUuid());
             deletedMeeting.markAsDeleted();
             
-            // Asegurar que el timestamp sea más reciente
-            deletedMeeting.setLastModified(LocalDateTime.now());
+            // Misma versión que la modificación
+            deletedMeeting.setVersion(meeting.getVersion());
             
             // Enviar la notificación de eliminación
-            sendMeetingToCentralServer(deletedMeeting);
+            removalSent = sendMeetingToCentralServer(deletedMeeting);
             
         }
         
-        meeting.setLastModified(LocalDateTime.now().plusSeconds(1));
-        sendMeetingToCentralServer(meeting);
+        // Ambos mensajes viajan en pipeline por la misma conexión; se esperan los dos ACK al final.
+        // Cada versión del reloj es mayor que la anterior, así que la reunión completa gana a la eliminación.
+        meeting.setVersion(HybridClock.now());
+        CompletableFuture<Frame> updateSent = sendMeetingToCentralServer(meeting);
+        boolean delivered = true;
+        if (removalSent != null) {
+            delivered = awaitDelivery(removalSent);
+        }
+        return awaitDelivery(updateSent) && delivered;
     }
     
-    public void deleteMeeting(Meeting meeting) {
+    public boolean deleteMeeting(Meeting meeting) {
         // Marcar la reunión como eliminada mediante un campo especial
-        meeting.setLastModified(LocalDateTime.now());
         meeting.markAsDeleted();
-        sendMeetingToCentralServer(meeting);
+        meeting.setVersion(HybridClock.after(meeting.getVersion()));
+        return awaitDelivery(sendMeetingToCentralServer(meeting));
     }
     
     // Método específico para cuando un invitado modifica solo el tema de una reunión
-    public void modifyMeetingAsTopic(Meeting meeting) {
-        meeting.setLastModified(LocalDateTime.now());
+    public boolean modifyMeetingAsTopic(Meeting meeting, Meeting original) {
+        meeting.setVersion(HybridClock.after(original.getVersion()));
         // No necesitamos comparar invitados, solo enviar la actualización del tema
-        sendMeetingToCentralServer(meeting);
+        Boolean patched = sendPatch(original, meeting);
+        return patched != null ? patched : awaitDelivery(sendMeetingToCentralServer(meeting));
     }
     
-    private void sendMeetingToCentralServer(Meeting meeting) {
+    // Resultado de enviar el cambio como parche, o null si hay que enviar la reunión completa:
+    // el servidor central no acepta parches o su versión de la reunión ya no es la de original
+    private Boolean sendPatch(Meeting original, Meeting meeting) {
+        MeetingEnvelope patch = MeetingEnvelope.patch(original, meeting);
         try {
-            Socket socket = new Socket(CENTRAL_SERVER_HOST, CENTRAL_SERVER_PORT);
-            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-            
-            out.println(meeting.toStringFormat());
-            out.flush();
-            
-            socket.close();
+            if (patch == null || !getCentralConnection().supportsPatches()) {
+                return null;
+            }
+        } catch (IOException e) {
+            // El envío completo volverá a intentar la conexión y mostrará el error
+            return null;
+        }
+        try {
+            return readDeliveryReport(FramedConnection.awaitAck(sendToCentralServer(patch), ACK_TIMEOUT_MS));
+        } catch (RejectedException e) {
+            if (e.getReason().startsWith(WireFormat.STALE_PATCH)) {
+                System.out.println("Note: sending the whole meeting (" + e.getReason() + ")");
+                return null;
+            }
+            System.err.println("Error sending meeting to Central Server: " + e.getMessage());
+            return false;
+        } catch (IOException e) {
+            System.err.println("Error sending meeting to Central Server: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private CompletableFuture<Frame> sendMeetingToCentralServer(Meeting meeting) {
+        return sendToCentralServer(MeetingEnvelope.of(meeting));
+    }
+    
+    private CompletableFuture<Frame> sendToCentralServer(MeetingEnvelope message) {
+        if (!TraceLog.sample()) {
+            return send(message);
+        }
+        // Mensaje trazado: cada etapa hasta el archivo de los invitados añade su marca de tiempo
+        long now = TraceLog.nowMicros();
+        Trace trace = Trace.start("client.send", now);
+        TraceLog.record(trace.getId(), "client.send", now, null, message.getUuid());
+        return send(message.withTrace(trace)).whenComplete((ack, error) -> TraceLog.record(trace.getId(),
+                error == null ? "client.ack" : "client.error", TraceLog.nowMicros(), null));
+    }
+    
+    private CompletableFuture<Frame> send(MeetingEnvelope message) {
+        try {
+            return getCentralConnection().requestMeeting(message);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private synchronized FramedConnection getCentralConnection() throws IOException {
+        if (centralConnection == null || !centralConnection.isOpen()) {
+            centralConnection = FramedConnection.connectNegotiated(
+                    new InetSocketAddress(CENTRAL_SERVER_HOST, CENTRAL_SERVER_PORT), CONNECT_TIMEOUT_MS);
+        }
+        return centralConnection;
+    }
+    
+    // El ACK del servidor central llega cuando los destinatarios han aplicado la actualización
+    // (o se ha guardado en el buzón de los que no están disponibles)
+    private boolean awaitDelivery(CompletableFuture<Frame> sent) {
+        try {
+            return readDeliveryReport(FramedConnection.awaitAck(sent, ACK_TIMEOUT_MS));
         } catch (IOException e) {
             System.err.println("Error sending meeting to Central Server: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static boolean readDeliveryReport(Frame ack) {
+        boolean delivered = true;
+        // El ACK del servidor central lista los destinatarios a los que no se pudo entregar todavía
+        for (String line : ack.getPayloadAsString().split("\n")) {
+            if (line.startsWith("FAILED=")) {
+                System.out.println("Warning: could not deliver to " + line.substring(7));
+                delivered = false;
+            } else if (line.startsWith("DEFERRED=")) {
+                System.out.println("Note: " + line.substring(9) + " will receive the update when back online");
+            } else if (line.startsWith("ROOM_CONFLICT=")) {
+                // Solo un aviso: el servidor central está configurado para no rechazarla
+                System.out.println("Warning: the room is also booked for " + line.substring(14));
+            }
+        }
+        return delivered;
+    }
+    
+    // Disponibilidad conjunta según el servidor central, o null si no respondió
+    public FreeBusy.Result queryFreeBusy(List<String> employees, LocalDateTime from, LocalDateTime to,
+                                         int durationMinutes, int slots, LocalTime dayStart, LocalTime dayEnd) {
+        FreeBusy.Query query = new FreeBusy.Query(employees, from, to, durationMinutes, slots, dayStart, dayEnd);
+        try {
+            CompletableFuture<Frame> sent = getCentralConnection().request(FrameType.FREE_BUSY,
+                    query.encode().getBytes(StandardCharsets.UTF_8));
+            return FreeBusy.Result.decode(FramedConnection.awaitAck(sent, ACK_TIMEOUT_MS).getPayloadAsString());
+        } catch (IOException e) {
+            System.err.println("Error querying availability: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    public synchronized void close() {
+        if (centralConnection != null) {
+            centralConnection.close();
+            centralConnection = null;
+        }
+        if (meetingCache != null) {
+            meetingCache.close();
+            meetingCache = null;
         }
     }
     
     // Method to load existing meetings
+    // Con MEETING_STORAGE_MODE=log el archivo puede tener varias versiones de una reunión (y
+    // tombstones): la caché se queda con la última de cada UUID y solo lee lo añadido desde la vez anterior
     private List<Meeting> loadMeetings() {
-        List<Meeting> meetings = new ArrayList<>();
+        MeetingCache cache = getMeetingCache();
+        if (!cache.fileExists()) {
+            System.out.println("No meetings file found for " + employeeName);
+        }
+        return cache.getMeetings();
+    }
+    
+    // Solo el cliente interactivo la usa; LoadGenerator crea miles de clientes y no necesita vigilar archivos
+    private synchronized MeetingCache getMeetingCache() {
+        if (meetingCache == null) {
+            meetingCache = new MeetingCache(meetingsFilePath);
+            meetingCache.watch();
+        }
+        return meetingCache;
+    }
+    
+    // Consultas sobre el índice temporal de la caché: próximas reuniones o las de un intervalo
+    private void showCalendar(Scanner scanner, DateTimeFormatter formatter) {
+        MeetingCache cache = getMeetingCache();
+        System.out.println("1. Next meetings");
+        System.out.println("2. Meetings between two times");
+        System.out.print("Enter your choice: ");
+        String option = scanner.nextLine().trim();
+        
+        List<Meeting> meetings;
         try {
-            File file = new File(meetingsFilePath);
-            
-            if (!file.exists()) {
-                System.out.println("No meetings file found for " + employeeName);
-                return meetings;
-            }
-            
-            BufferedReader reader = new BufferedReader(new FileReader(meetingsFilePath));
-            StringBuilder meetingStr = new StringBuilder();
-            String line;
-            
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty() && meetingStr.length() > 0) {
-                    // End of a meeting, process it
-                    Meeting meeting = Meeting.fromStringFormat(meetingStr.toString());
-                    // No cargamos reuniones que estén marcadas como eliminadas
-                    if (!meeting.isDeleted()) {
-                        meetings.add(meeting);
-                    }
-                    meetingStr = new StringBuilder();
-                } else if (!line.trim().isEmpty()) {
-                    // Add line to current meeting
-                    meetingStr.append(line).append("\n");
-                }
+            if (option.equals("1")) {
+                System.out.print("How many meetings? ");
+                int count = Integer.parseInt(scanner.nextLine().trim());
+                meetings = cache.getNextMeetings(LocalDateTime.now(), count);
+            } else if (option.equals("2")) {
+                System.out.print("From (yyyy-MM-ddTHH:mm:ss): ");
+                LocalDateTime from = LocalDateTime.parse(scanner.nextLine().trim(), formatter);
+                System.out.print("To (yyyy-MM-ddTHH:mm:ss): ");
+                LocalDateTime to = LocalDateTime.parse(scanner.nextLine().trim(), formatter);
+                meetings = cache.getMeetingsBetween(from, to);
+            } else {
+                System.out.println("Invalid choice.");
+                return;
             }
-            
-            // Process the last meeting if exists
-            if (meetingStr.length() > 0) {
-                Meeting meeting = Meeting.fromStringFormat(meetingStr.toString());
-                if (!meeting.isDeleted()) {
-                    meetings.add(meeting);
-                }
+        } catch (RuntimeException e) {
+            System.out.println("Invalid input: " + e.getMessage());
+            return;
+        }
+        
+        if (meetings.isEmpty()) {
+            System.out.println("No meetings found.");
+            return;
+        }
+        for (Meeting meeting : meetings) {
+            String roleLabel = meeting.getOrganizer().equals(employeeName) ? "[Organizer]" : "[Invited]";
+            System.out.println(meeting.getStartTime() + " - " + meeting.getEndTime() + "  " + roleLabel + " "
+                    + meeting.getTopic() + " @ " + meeting.getLocation());
+        }
+    }
+    
+    // Busca huecos comunes para una reunión con los invitados elegidos (y el propio empleado)
+    private void findFreeSlot(Scanner scanner, DateTimeFormatter formatter) {
+        List<String> employees = new ArrayList<>();
+        employees.add(employeeName);
+        employees.addAll(selectInvitedEmployees(scanner, employeeName));
+        LocalDateTime from;
+        LocalDateTime to;
+        int duration;
+        LocalTime dayStart = null;
+        LocalTime dayEnd = null;
+        try {
+            System.out.print("From (yyyy-MM-ddTHH:mm:ss): ");
+            from = LocalDateTime.parse(scanner.nextLine().trim(), formatter);
+            System.out.print("To (yyyy-MM-ddTHH:mm:ss): ");
+            to = LocalDateTime.parse(scanner.nextLine().trim(), formatter);
+            System.out.print("Meeting length in minutes: ");
+            duration = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Working hours (e.g. 09:00-17:00, empty for any time): ");
+            String hours = scanner.nextLine().trim();
+            if (!hours.isEmpty()) {
+                String[] range = hours.split("-");
+                dayStart = LocalTime.parse(range[0].trim());
+                dayEnd = LocalTime.parse(range[1].trim());
             }
-            
-            reader.close();
-        } catch (IOException e) {
-            System.out.println("EmployeeClient: Error reading meetings file: " + e.getMessage());
-            e.printStackTrace();
+        } catch (RuntimeException e) {
+            System.out.println("Invalid input: " + e.getMessage());
+            return;
+        }
+        
+        FreeBusy.Result result;
+        try {
+            result = queryFreeBusy(employees, from, to, duration, FreeBusy.DEFAULT_SLOTS, dayStart, dayEnd);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid query: " + e.getMessage());
+            return;
+        }
+        if (result == null) {
+            return;
+        }
+        if (!result.getUnknown().isEmpty()) {
+            System.out.println("Unknown employees: " + String.join(", ", result.getUnknown()));
+        }
+        System.out.println("Busy: " + result.getBusy().size() + " intervals");
+        if (result.getFree().isEmpty()) {
+            System.out.println("No common free slot of " + duration + " minutes in that window.");
+            return;
+        }
+        System.out.println("Earliest common free slots:");
+        for (FreeBusy.Slot slot : result.getFree()) {
+            System.out.println("  " + slot.getStart() + " - " + slot.getEnd());
         }
-        return meetings;
     }
     
     // Method to show employee selection menu dynamically from properties file
@@ -188,6 +391,11 @@ public class EmployeeClient {
             }
         }
         
+        // Las listas de distribución se invitan como @grupo y el servidor central las expande
+        for (String group : PropertiesUtil.getGroups().keySet()) {
+            availableEmployees.add("@" + group);
+        }
+        
         System.out.println("Select Employees to Invite:");
         for (int i = 0; i < availableEmployees.size(); i++) {
             System.out.println((i + 1) + ". " + availableEmployees.get(i));
@@ -281,7 +489,9 @@ public class EmployeeClient {
             System.out.println("1. Create a new meeting");
             System.out.println("2. Modify an existing meeting");
             System.out.println("3. Delete your meetings");
-            System.out.println("4. Exit");
+            System.out.println("4. View your calendar");
+            System.out.println("5. Find a common free slot");
+            System.out.println("6. Exit");
             System.out.print("Enter your choice: ");
             
             int choice;
@@ -322,6 +532,12 @@ public class EmployeeClient {
                     continue;
                 }
                 
+                // Solo un aviso: el organizador decide si la mantiene
+                for (Meeting overlapping : client.getMeetingCache().getMeetingsBetween(startTime, endTime)) {
+                    System.out.println("Warning: overlaps with " + overlapping.getTopic() + " ("
+                            + overlapping.getStartTime() + " - " + overlapping.getEndTime() + ")");
+                }
+                
                 client.createMeeting(topic, invitedEmployees, location, startTime, endTime);
             } else if (choice == 2) {
                 // Modify an existing meeting
@@ -392,8 +608,8 @@ public class EmployeeClient {
                     continue;
                 }
                 
-                // Guardar la lista actual de invitados para posible comparación si eres organizador
-                List<String> previousInvitees = selectedMeeting.getInvitedEmployees();
+                // Guardar la reunión sin editar: el cambio se envía como diferencia con ella
+                Meeting original = selectedMeeting.copy();
                 
                 switch (modifyChoice) {
                     case 1:
@@ -405,8 +621,8 @@ public class EmployeeClient {
                             // Use new method to select invitees
                             selectedMeeting.setInvitedEmployees(selectInvitedEmployees(scanner, employeeName));
                             
-                            // Enviar actualización con la lista previa de invitados para comparación
-                            client.modifyMeeting(selectedMeeting, previousInvitees);
+                            // Enviar actualización con la reunión previa para comparar los invitados
+                            client.modifyMeeting(selectedMeeting, original);
                             System.out.println("Meeting modified successfully.");
                             continue; // Saltar al inicio del bucle para evitar la llamada duplicada a modifyMeeting abajo
                         }
@@ -446,9 +662,9 @@ public class EmployeeClient {
                 
                 // Para todas las modificaciones excepto la lista de invitados (que ya se procesó en el case 2)
                 if (isOrganizer) {
-                    client.modifyMeeting(selectedMeeting, previousInvitees);
+                    client.modifyMeeting(selectedMeeting, original);
                 } else {
-                    client.modifyMeetingAsTopic(selectedMeeting);
+                    client.modifyMeetingAsTopic(selectedMeeting, original);
                 }
                 System.out.println("Meeting modified successfully.");
                 System.out.println("Meeting modified successfully.");
@@ -481,13 +697,18 @@ public class EmployeeClient {
                     System.out.println("Deletion cancelled.");
                 }
             } else if (choice == 4) {
+                client.showCalendar(scanner, formatter);
+            } else if (choice == 5) {
+                client.findFreeSlot(scanner, formatter);
+            } else if (choice == 6) {
                 break;
             } else {
-                System.out.println("Invalid choice. Please enter 1, 2, 3, or 4.");
+                System.out.println("Invalid choice. Please enter a number from 1 to 6.");
             }
         }
         
         scanner.close();
+        client.close();
         System.out.println("Client closed.");
     }
 }
\ No newline at end of file
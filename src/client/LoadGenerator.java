@@ -0,0 +1,271 @@
+package client;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Meeting;
+import util.LatencyHistogram;
+import util.PropertiesUtil;
+import util.Settings;
+
+// Generador de carga en bucle cerrado: N empleados simulados, cada uno con su EmployeeClient y
+// su conexión al servidor central, repiten operaciones según una mezcla configurable. Cada
+// operación espera el ACK del servidor central, que llega cuando los servidores de los invitados
+// ya han aplicado la actualización, así que la latencia medida va del envío del cliente a la
+// escritura en el observador (con MEETING_WRITE_DURABILITY=update, hasta el fsync).
+//
+// CENTRAL_SERVER_HOST=localhost LOAD_CLIENTS=1000 java -cp classes client.LoadGenerator
+// (el servidor central necesita EMPLOYEE_HOST=localhost si los empleados corren en la misma máquina)
+public class LoadGenerator {
+    private static final String CREATE = "create";
+    private static final String MODIFY = "modify";
+    private static final String INVITEES = "invitees";
+    private static final String DELETE = "delete";
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    private final int clients;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final long thinkMillis;
+    private final int inviteesPerMeeting;
+    private final Map<String, Integer> mix;
+    private final int mixTotal;
+    private final List<String> employees;
+    // Un histograma y contadores por tipo de operación, en microsegundos
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private volatile long measureFrom;
+    private volatile boolean running = true;
+
+    public LoadGenerator(int clients, int durationSeconds, int warmupSeconds, long thinkMillis,
+                         int inviteesPerMeeting, Map<String, Integer> mix, List<String> employees) {
+        this.clients = clients;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.thinkMillis = thinkMillis;
+        this.inviteesPerMeeting = Math.min(inviteesPerMeeting, employees.size() - 1);
+        this.mix = mix;
+        this.employees = employees;
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            total += entry.getValue();
+            stats.put(entry.getKey(), new OperationStats());
+        }
+        this.mixTotal = total;
+    }
+
+    // "create=40,modify=30,invitees=20,delete=10": peso relativo de cada operación
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                continue;
+            }
+            String operation = entry[0].trim().toLowerCase();
+            if (!operation.equals(CREATE) && !operation.equals(MODIFY)
+                    && !operation.equals(INVITEES) && !operation.equals(DELETE)) {
+                throw new IllegalArgumentException("Unknown operation in LOAD_MIX: " + operation);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        // Sin creaciones no habría reuniones que modificar o borrar
+        mix.putIfAbsent(CREATE, 0);
+        return mix;
+    }
+
+    public void run(PrintStream report) throws InterruptedException {
+        report.println("Load: " + clients + " clients, mix " + mix + ", " + inviteesPerMeeting + " invitees per meeting, "
+                + TimeUnit.NANOSECONDS.toSeconds(warmupNanos) + " s warm-up + "
+                + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + " s measured");
+        long startedAt = System.nanoTime();
+        measureFrom = startedAt + warmupNanos;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int clientId = i;
+            // Hilos virtuales: miles de clientes bloqueados esperando su ACK no cuestan un hilo del sistema cada uno
+            threads.add(Thread.ofVirtual().name("load-client-" + i).start(() -> simulateEmployee(clientId)));
+        }
+
+        long endAt = measureFrom + durationNanos;
+        long reportIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, Settings.getInt("LOAD_REPORT_SECONDS", 10)));
+        long lastCompleted = 0;
+        long lastReportAt = measureFrom;
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, measureFrom - System.nanoTime()));
+        while (System.nanoTime() < endAt) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(reportIntervalNanos, Math.max(0, endAt - System.nanoTime())));
+            long now = System.nanoTime();
+            long completed = completedOperations();
+            report.printf("[load] %4d s  %8.1f ops/s%n", TimeUnit.NANOSECONDS.toSeconds(now - measureFrom),
+                    (completed - lastCompleted) / ((now - lastReportAt) / 1e9));
+            lastCompleted = completed;
+            lastReportAt = now;
+        }
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(35));
+        }
+        printSummary(report, (double) durationNanos / 1e9);
+    }
+
+    private void simulateEmployee(int clientId) {
+        String employeeName = employees.get(clientId % employees.size());
+        Random random = new Random(clientId);
+        EmployeeClient client = new EmployeeClient(employeeName);
+        List<Meeting> meetings = new ArrayList<>();
+        int created = 0;
+        try {
+            while (running) {
+                String operation = meetings.isEmpty() ? CREATE : pickOperation(random);
+                long startedAt = System.nanoTime();
+                boolean delivered;
+                switch (operation) {
+                    case CREATE: {
+                        LocalDateTime start = FIRST_SLOT.plusMinutes(30L * (clientId * 1000L + created++));
+                        Meeting meeting = client.createMeeting("Load " + clientId + "-" + created,
+                                pickInvitees(random, employeeName), "Room " + random.nextInt(20), start, start.plusMinutes(30));
+                        delivered = meeting != null;
+                        if (delivered) {
+                            meetings.add(meeting);
+                        }
+                        break;
+                    }
+                    case MODIFY: {
+                        Meeting meeting = meetings.get(random.nextInt(meetings.size()));
+                        Meeting original = meeting.copy();
+                        meeting.setTopic("Load " + clientId + " edited " + random.nextInt(1000));
+                        meeting.setLocation("Room " + random.nextInt(20));
+                        delivered = client.modifyMeeting(meeting, original);
+                        break;
+                    }
+                    case INVITEES: {
+                        Meeting meeting = meetings.get(random.nextInt(meetings.size()));
+                        Meeting original = meeting.copy();
+                        meeting.setInvitedEmployees(pickInvitees(random, employeeName));
+                        delivered = client.modifyMeeting(meeting, original);
+                        break;
+                    }
+                    default: {
+                        delivered = client.deleteMeeting(meetings.remove(random.nextInt(meetings.size())));
+                        break;
+                    }
+                }
+                long finishedAt = System.nanoTime();
+                if (startedAt >= measureFrom && finishedAt <= measureFrom + durationNanos) {
+                    stats.get(operation).record(finishedAt - startedAt, delivered);
+                }
+                if (thinkMillis > 0) {
+                    Thread.sleep(thinkMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            client.close();
+        }
+    }
+
+    private String pickOperation(Random random) {
+        int ticket = random.nextInt(Math.max(1, mixTotal));
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        return CREATE;
+    }
+
+    private List<String> pickInvitees(Random random, String organizer) {
+        List<String> invitees = new ArrayList<>();
+        while (invitees.size() < inviteesPerMeeting) {
+            String employee = employees.get(random.nextInt(employees.size()));
+            if (!employee.equals(organizer) && !invitees.contains(employee)) {
+                invitees.add(employee);
+            }
+        }
+        return invitees;
+    }
+
+    private long completedOperations() {
+        long total = 0;
+        for (OperationStats operation : stats.values()) {
+            total += operation.latency.getCount();
+        }
+        return total;
+    }
+
+    private void printSummary(PrintStream report, double seconds) {
+        report.println();
+        report.printf("%-10s %9s %7s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        LatencyHistogram all = new LatencyHistogram();
+        long errors = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            printRow(report, entry.getKey(), operation.latency, operation.errors.get(), seconds);
+            all.add(operation.latency);
+            errors += operation.errors.get();
+        }
+        printRow(report, "total", all, errors, seconds);
+    }
+
+    private static void printRow(PrintStream report, String name, LatencyHistogram latency, long errors, double seconds) {
+        report.printf("%-10s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, latency.getCount(), errors,
+                latency.getCount() / seconds, latency.getMean() / 1000.0, toMillis(latency.getPercentile(50)),
+                toMillis(latency.getPercentile(90)), toMillis(latency.getPercentile(99)),
+                toMillis(latency.getPercentile(99.9)), toMillis(latency.getMax()));
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean delivered) {
+            latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (!delivered) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<String> employees = PropertiesUtil.getEmployeeNames();
+        if (employees.size() < 2) {
+            System.err.println("LoadGenerator needs at least two employees in employees.properties");
+            System.exit(1);
+        }
+        LoadGenerator generator = new LoadGenerator(
+                Settings.getInt("LOAD_CLIENTS", 100),
+                Settings.getInt("LOAD_DURATION_SECONDS", 60),
+                Settings.getInt("LOAD_WARMUP_SECONDS", 10),
+                Settings.getLong("LOAD_THINK_MS", 0),
+                Settings.getInt("LOAD_INVITEES", 3),
+                parseMix(Settings.getString("LOAD_MIX", "create=40,modify=30,invitees=20,delete=10")),
+                employees);
+
+        // Los mensajes de cada EmployeeClient ahogarían el informe; los errores se cuentan igualmente
+        PrintStream report = System.out;
+        if (!Settings.getBoolean("LOAD_VERBOSE", false)) {
+            PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+            System.setOut(discard);
+            System.setErr(discard);
+        }
+        generator.run(report);
+        System.exit(0);
+    }
+}
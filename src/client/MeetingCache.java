@@ -0,0 +1,261 @@
+package client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import model.Meeting;
+import model.MeetingTimeIndex;
+
+// Caché en memoria de las reuniones del archivo de un empleado, con un MeetingTimeIndex para las
+// consultas por fecha. El archivo solo crece mientras
+// no se compacta (los servidores añaden registros al final), así que basta con leer lo que se ha
+// añadido desde la última vez. Un WatchService sobre el directorio avisa de los cambios y la
+// cola se lee en segundo plano: los menús encuentran la caché ya al día. Antes de responder se
+// comprueban además el tamaño y la identidad del archivo, por si el aviso no llegó (o no hay
+// WatchService), y si el archivo fue reescrito (modo rewrite o compactación) se vuelve a leer entero.
+public class MeetingCache {
+    // Bytes anteriores a la posición leída que se comparan para detectar una reescritura en el sitio
+    private static final int CHECK_BYTES = 64;
+
+    private final File file;
+    private final Path fileName;
+    // Última versión de cada UUID, en el orden en que apareció cada reunión en el archivo
+    private final Map<String, Meeting> latest = new LinkedHashMap<>();
+    // Último registro del archivo si todavía no termina en línea vacía: se muestra, pero no entra
+    // en latest hasta que esté completo (puede estar a medio escribir)
+    private Meeting tail;
+    // Reuniones vigentes por fecha: las de latest más el registro final pendiente
+    private final MeetingTimeIndex timeIndex = new MeetingTimeIndex();
+    private long offset = 0;
+    private Object fileKey;
+    private byte[] tailCheck = new byte[0];
+    private long reloads = 0;
+    private WatchService watchService;
+
+    public MeetingCache(String meetingsFilePath) {
+        this.file = new File(meetingsFilePath);
+        this.fileName = file.toPath().getFileName();
+    }
+
+    // Arranca el hilo que escucha cambios en el directorio del archivo; sin él la caché funciona
+    // igual, leyendo la cola cuando se piden las reuniones
+    public void watch() {
+        Path directory = file.getAbsoluteFile().toPath().getParent();
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            synchronized (this) {
+                watchService = service;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Not watching " + directory + ": " + e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(this::watchLoop, "meeting-cache-" + fileName);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // OVERFLOW: se perdieron eventos, así que puede haber cambiado
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+                }
+                if (changed) {
+                    refresh();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close()
+        }
+    }
+
+    // Copias de las reuniones vigentes, por hora de inicio: quien las modifique no altera la caché
+    public synchronized List<Meeting> getMeetings() {
+        refresh();
+        return copies(timeIndex.all());
+    }
+
+    // Reuniones que ocupan parte de [from, to)
+    public synchronized List<Meeting> getMeetingsBetween(LocalDateTime from, LocalDateTime to) {
+        refresh();
+        return copies(timeIndex.between(from, to));
+    }
+
+    public synchronized List<Meeting> getNextMeetings(LocalDateTime from, int count) {
+        refresh();
+        return copies(timeIndex.next(from, count));
+    }
+
+    // Reuniones del calendario que se solapan con la indicada (sin contarla a ella)
+    public synchronized List<Meeting> getConflicts(Meeting meeting) {
+        refresh();
+        return copies(timeIndex.conflictsWith(meeting));
+    }
+
+    private static List<Meeting> copies(List<Meeting> meetings) {
+        List<Meeting> copies = new ArrayList<>(meetings.size());
+        for (Meeting meeting : meetings) {
+            copies.add(meeting.copy());
+        }
+        return copies;
+    }
+
+    public boolean fileExists() {
+        return file.exists();
+    }
+
+    // Veces que hubo que leer el archivo completo
+    public synchronized long getReloads() {
+        return reloads;
+    }
+
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Solo se está cerrando
+            }
+            watchService = null;
+        }
+    }
+
+    private synchronized void refresh() {
+        try {
+            if (!file.exists()) {
+                clear();
+                return;
+            }
+            Object currentKey = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+            long length = file.length();
+            if (offset > 0 && (!Objects.equals(currentKey, fileKey) || length < offset || !tailUnchanged())) {
+                clear();
+            }
+            if (offset == 0 && length > 0) {
+                reloads++;
+            }
+            fileKey = currentKey;
+            if (length > offset) {
+                readFrom(length);
+            }
+        } catch (IOException e) {
+            System.out.println("EmployeeClient: Error reading meetings file: " + e.getMessage());
+        }
+    }
+
+    private void clear() {
+        latest.clear();
+        timeIndex.clear();
+        tail = null;
+        offset = 0;
+        fileKey = null;
+        tailCheck = new byte[0];
+    }
+
+    private boolean tailUnchanged() throws IOException {
+        return Arrays.equals(readBytes(offset - tailCheck.length, offset), tailCheck);
+    }
+
+    // Aplica los registros completos (terminados en línea vacía) desde offset y avanza hasta el
+    // último de ellos. Lo que queda detrás se vuelve a leer la próxima vez.
+    private void readFrom(long length) throws IOException {
+        byte[] bytes = readBytes(offset, length);
+        if (tail != null) {
+            // El registro pendiente se vuelve a leer ahora; en el índice queda la versión anterior
+            Meeting previous = latest.get(tail.getUuid());
+            if (previous != null) {
+                timeIndex.put(previous);
+            } else {
+                timeIndex.remove(tail.getUuid());
+            }
+        }
+        int complete = 0;
+        int recordStart = 0;
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd < bytes.length && isBlank(bytes, lineStart, lineEnd)) {
+                Meeting meeting = parse(bytes, recordStart, lineStart);
+                if (meeting != null) {
+                    latest.put(meeting.getUuid(), meeting);
+                    timeIndex.put(meeting);
+                }
+                recordStart = lineEnd + 1;
+                complete = recordStart;
+            }
+            lineStart = lineEnd + 1;
+        }
+        // El formato antiguo no deja línea vacía tras la última reunión; un registro a medias
+        // normalmente no llega a tener las dos fechas
+        tail = parse(bytes, recordStart, bytes.length);
+        if (tail != null && !tail.isDeleted() && (tail.getStartTime() == null || tail.getEndTime() == null)) {
+            tail = null;
+        }
+        if (tail != null) {
+            timeIndex.put(tail);
+        }
+
+        offset += complete;
+        tailCheck = readBytes(Math.max(0, offset - CHECK_BYTES), offset);
+    }
+
+    // Las reuniones sin UUID (formato antiguo) reciben uno al parsearse, así que cada registro
+    // completo se parsea una sola vez
+    private static Meeting parse(byte[] bytes, int start, int end) {
+        if (isBlank(bytes, start, end)) {
+            return null;
+        }
+        try {
+            return Meeting.fromStringFormat(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // Registro a medio escribir: se leerá completo en la siguiente pasada
+            return null;
+        }
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((bytes[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] readBytes(long from, long to) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int) (to - from)];
+            in.seek(from);
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+}
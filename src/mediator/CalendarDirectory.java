@@ -0,0 +1,90 @@
+package mediator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.FreeBusy;
+import model.Meeting;
+import observer.MeetingIndex;
+import observer.MeetingLog;
+
+// Calendarios de los empleados vistos desde el servidor central, para responder consultas de
+// disponibilidad sin preguntar a cada servidor. Cada calendario se carga la primera vez que hace
+// falta desde el archivo de reuniones del empleado (el volumen de datos es compartido) y a partir
+// de ahí se actualiza con cada mensaje que reparte el mediador, con las mismas reglas que aplica
+// el servidor del empleado (MeetingIndex), así que los dos llegan a lo mismo.
+public class CalendarDirectory {
+    private final File dataDirectory;
+    private final Map<String, MeetingIndex> calendars = new ConcurrentHashMap<>();
+    // Recibe las reuniones que organiza cada empleado al cargar su calendario (puede ser null)
+    private final RoomBookings roomBookings;
+
+    public CalendarDirectory(File dataDirectory, RoomBookings roomBookings) {
+        this.dataDirectory = dataDirectory;
+        this.roomBookings = roomBookings;
+    }
+
+    // Actualización que el mediador va a entregar a estos destinatarios
+    public void apply(Meeting meeting, Collection<String> recipients) {
+        for (String employeeName : recipients) {
+            calendarOf(employeeName).apply(meeting, employeeName);
+        }
+    }
+
+    // Versión de la reunión que tiene el empleado (según lo que se le ha repartido), o null
+    public Meeting find(String employeeName, String uuid) {
+        return calendarOf(employeeName).get(uuid);
+    }
+
+    // Carga los calendarios en segundo plano para que la primera consulta no tenga que leer los archivos
+    public void warmUp(Collection<String> employeeNames) {
+        List<String> names = new ArrayList<>(employeeNames);
+        Thread loader = new Thread(() -> {
+            for (String employeeName : names) {
+                calendarOf(employeeName);
+            }
+            System.out.println("Calendar directory loaded for " + names.size() + " employees");
+        }, "calendar-warmup");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public FreeBusy.Result freeBusy(FreeBusy.Query query, Collection<String> employeeNames, List<String> unknown) {
+        List<List<Meeting>> busy = new ArrayList<>(employeeNames.size());
+        for (String employeeName : employeeNames) {
+            busy.add(calendarOf(employeeName).getTimeIndex().between(query.getFrom(), query.getTo()));
+        }
+        List<FreeBusy.Slot> merged = FreeBusy.mergeBusy(busy, query.getFrom(), query.getTo());
+        return new FreeBusy.Result(merged, FreeBusy.freeSlots(merged, query), unknown);
+    }
+
+    // computeIfAbsent garantiza que el archivo se lee antes de aplicar la primera actualización
+    private MeetingIndex calendarOf(String employeeName) {
+        return calendars.computeIfAbsent(employeeName, this::load);
+    }
+
+    private MeetingIndex load(String employeeName) {
+        MeetingIndex index = new MeetingIndex();
+        File file = new File(dataDirectory, employeeName + "_meetings.txt");
+        if (file.exists()) {
+            try {
+                index.replay(new MeetingLog(file.getPath()).readFrom(0));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not load calendar of " + employeeName + ": " + e.getMessage());
+            }
+        }
+        if (roomBookings != null) {
+            // Cada reserva de sala se recupera una sola vez, del calendario de su organizador
+            for (Meeting meeting : index.getMeetings()) {
+                if (employeeName.equals(meeting.getOrganizer())) {
+                    roomBookings.restore(meeting);
+                }
+            }
+        }
+        return index;
+    }
+}
@@ -1,20 +1,88 @@
 package mediator;
 
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.Socket;
-import java.util.HashMap;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.FreeBusy;
+import model.Meeting;
+import model.MeetingEnvelope;
+import protocol.WireFormat;
+import util.Metrics;
 import util.PropertiesUtil;
+import util.Settings;
+import util.StripedLock;
+import util.TraceLog;
 
 public class CentralServerMediator implements Mediator {
-    private Map<String, Integer> employeePorts = new HashMap<>();
+    private static final Metrics.Timer routingTime = Metrics.timer("meetings_routing_seconds",
+            "Time to resolve recipients and enqueue a meeting for each of them");
+    private static final Metrics.Timer freeBusyTime = Metrics.timer("meetings_free_busy_seconds",
+            "Time to answer a free/busy query");
+    private static final Metrics.Counter patchesRejected = Metrics.counter("meetings_patches_rejected_total",
+            "Patches whose base version was not the organizer's current one");
+    private final RoutingTable routingTable = new RoutingTable();
+    private final EmployeeConnectionPool connectionPool;
+    // Hilos que entregan a los destinatarios en paralelo; su número limita la concurrencia del reparto
+    private final ExecutorService fanOutExecutor;
+    private final OutboundQueues outboundQueues;
+    private final Outbox outbox;
+    private final CalendarDirectory calendars;
+    private final RoomConflictPolicy roomConflictPolicy;
+    // null con RoomConflictPolicy.OFF
+    private final RoomBookings roomBookings;
+    // Serializa por reunión la lectura de los calendarios y el encolado, para que el parche que se
+    // decide enviar a cada destinatario corresponda a lo que tiene en su cola
+    private final StripedLock meetingLocks = StripedLock.forCores();
     
     public CentralServerMediator() {
+        this(null, new File(Settings.getString("OUTBOX_DIR", "/app/data/outbox")));
+    }
+    
+    // Con un Sender propio (por ejemplo en los benchmarks) las entregas no abren conexiones
+    public CentralServerMediator(OutboundQueues.Sender sender, File outboxDirectory) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.fanOutExecutor = Executors.newFixedThreadPool(Settings.getInt("FANOUT_PARALLELISM", 16), runnable -> {
+            Thread thread = new Thread(runnable, "fanout-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connectionPool = new EmployeeConnectionPool(
+                Settings.getInt("MEDIATOR_POOL_SIZE", 2),
+                Settings.getLong("MEDIATOR_POOL_IDLE_TIMEOUT_MS", 5 * 60 * 1000L),
+                Settings.getLong("MEDIATOR_POOL_HEALTH_CHECK_MS", 30 * 1000L),
+                Settings.getLong("MEDIATOR_ACK_TIMEOUT_MS", 5000L));
+        this.roomConflictPolicy = RoomConflictPolicy.parse(Settings.getString("ROOM_CONFLICT_POLICY", "flag"),
+                RoomConflictPolicy.FLAG);
+        this.roomBookings = roomConflictPolicy != RoomConflictPolicy.OFF ? new RoomBookings() : null;
+        this.calendars = new CalendarDirectory(new File(Settings.getString("CALENDAR_DATA_DIR", "/app/data")),
+                roomBookings);
+        OutboundQueues.Sender delivery = sender != null ? sender : connectionPool::send;
+        // Con la vista de calendarios se reenvía completa la reunión a quien no tiene la base de un parche
+        this.outbox = new Outbox(outboxDirectory, delivery, calendars::find, fanOutExecutor,
+                Settings.getLong("OUTBOX_RETRY_INITIAL_MS", 1000L),
+                Settings.getLong("OUTBOX_RETRY_MAX_MS", 60 * 1000L));
+        this.outboundQueues = new OutboundQueues(delivery, calendars::find, fanOutExecutor, outbox);
         loadEmployeeProperties();
+        loadGroups();
+        calendars.warmUp(routingTable.getEmployeeNames());
+        // Reanudar las entregas que quedaron pendientes antes de un reinicio
+        outbox.recover();
     }
 
     private String getEmployeeHost(String employeeName) {
+        // EMPLOYEE_HOST permite ejecutar todos los servidores en una misma máquina (p. ej. localhost)
+        String sharedHost = Settings.getString("EMPLOYEE_HOST", "");
+        if (!sharedHost.isEmpty()) {
+            return sharedHost;
+        }
         // Convertir el nombre del empleado a nombre de host de Docker
         return employeeName.toLowerCase().replace('_', '-') + "-server";
     }
@@ -27,69 +95,206 @@ public class CentralServerMediator implements Mediator {
         }
     }
     
+    private void loadGroups() {
+        for (Map.Entry<String, List<String>> group : PropertiesUtil.getGroups().entrySet()) {
+            routingTable.defineGroup(group.getKey(), group.getValue());
+            System.out.println("Registered group: @" + group.getKey() + " -> " + routingTable.getGroupMembers(group.getKey()));
+        }
+    }
+    
     @Override
-    public void sendMessage(String message, String sender) {
+    public CompletableFuture<DeliveryReport> sendMessage(MeetingEnvelope message, String sender) {
         try {
-            // Extraer información del mensaje
-            String[] lines = message.split("\n");
-            String topic = "";
-            String organizer = "";
-            String invitedLine = "";
-            
-            for (String line : lines) {
-                if (line.startsWith("TOPIC=")) {
-                    topic = line.substring(6);
-                } else if (line.startsWith("ORGANIZER=")) {
-                    organizer = line.substring(10);
-                } else if (line.startsWith("INVITED=")) {
-                    invitedLine = line.substring(8);
-                }
+            long startedAt = System.nanoTime();
+            if (message.isPatch()) {
+                return routePatch(message, startedAt);
             }
+            String uuid = message.getUuid();
+            String invitedLine = message.getInvitedText();
             
-            System.out.println("Processing meeting: " + topic + " (Organized by: " + organizer + ")");
+            System.out.println("Processing meeting: " + message.getTopic() + " (Organized by: " + message.getOrganizer() + ")");
             
-            // Lista de empleados invitados
-            String[] invitedEmployees = invitedLine.split(",");
+            // Destinatarios resueltos desde la lista de invitados, con los grupos expandidos
+            Set<String> recipients = routingTable.resolveRecipients(message.getOrganizer(), invitedLine);
             
-            // Enviar a todos los empleados relevantes (organizador e invitados)
-            for (Map.Entry<String, Integer> entry : employeePorts.entrySet()) {
-                String employeeName = entry.getKey();
-                int port = entry.getValue();
-                
-                // Verificar si el empleado es el organizador o está invitado
-                boolean isInvolved = employeeName.equals(organizer);
-                if (!isInvolved) {
-                    for (String invited : invitedEmployees) {
-                        if (employeeName.equals(invited.trim())) {
-                            isInvolved = true;
-                            break;
-                        }
-                    }
+            // Si se invitó a un grupo, los servidores de los empleados reciben la lista ya expandida
+            if (invitedLine.contains(RoutingTable.GROUP_PREFIX)) {
+                message = message.withInvited(routingTable.expandInvitees(invitedLine));
+            }
+            
+            // Cada destinatario tiene su propia cola y se atiende en paralelo: un contenedor lento
+            // no retrasa a los demás, y las versiones intermedias de una reunión se descartan
+            if (message.getTrace() != null) {
+                long now = TraceLog.nowMicros();
+                message = message.withHop("central.routed", now);
+                TraceLog.record(message.getTrace().getId(), "central.routed", now, null, "recipients=" + recipients.size());
+            }
+            Meeting meeting = message.toMeeting();
+            List<CompletableFuture<DeliveryReport.Outcome>> deliveries = new ArrayList<>();
+            List<Meeting> roomConflicts;
+            synchronized (meetingLocks.lockFor(uuid != null ? uuid : "")) {
+                roomConflicts = bookRoom(meeting);
+                if (isRoomRejection(roomConflicts)) {
+                    return rejectRoom(meeting, roomConflicts);
                 }
-                
-                if (isInvolved) {
-                    try {
-                        System.out.println("Sending message to " + employeeName);
-                        Socket socket = new Socket(getEmployeeHost(employeeName), port);
-                        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-                        out.println(message);
-                        out.flush();
-                        socket.close();
-                        System.out.println("Message sent successfully to " + employeeName);
-                    } catch (IOException e) {
-                        System.err.println("Error sending message to " + employeeName + ": " + e.getMessage());
-                    }
+                // La vista de disponibilidad del servidor central refleja lo que va a recibir cada destinatario
+                calendars.apply(meeting, recipients);
+                for (String employeeName : recipients) {
+                    deliveries.add(outboundQueues.enqueue(employeeName, uuid, message.getVersion(), message));
                 }
             }
+            routingTime.recordSince(startedAt);
+            return report(deliveries, roomConflicts);
         } catch (Exception e) {
-            System.err.println("General error in sendMessage: " + e.getMessage());
-            e.printStackTrace();
+            // No se repartió nada: el error llega al cliente como NACK en lugar de un ACK vacío
+            System.err.println("General error in sendMessage: " + e);
+            return CompletableFuture.failedFuture(e);
         }
     }
     
+    // Un parche se comprueba contra la versión que tiene el organizador según el servidor central;
+    // si no es la misma (o no se conoce), se rechaza y el cliente envía la reunión completa. Cada
+    // destinatario que ya tiene esa versión recibe solo el parche; los que no (los invitados
+    // nuevos) reciben la reunión completa, y los invitados quitados, su eliminación.
+    private CompletableFuture<DeliveryReport> routePatch(MeetingEnvelope patch, long startedAt) {
+        String uuid = patch.getUuid();
+        String organizer = patch.getOrganizer();
+        System.out.println("Processing patch of meeting " + uuid + " (Organized by: " + organizer + ")");
+        List<CompletableFuture<DeliveryReport.Outcome>> deliveries = new ArrayList<>();
+        List<Meeting> roomConflicts;
+        synchronized (meetingLocks.lockFor(uuid)) {
+            Meeting base = routingTable.isRegistered(organizer) ? calendars.find(organizer, uuid) : null;
+            if (base == null || base.isDeleted() || patch.getBaseVersion() != base.getVersion()
+                    || patch.getVersion() <= base.getVersion()) {
+                patchesRejected.increment();
+                return CompletableFuture.completedFuture(DeliveryReport.rejected(WireFormat.STALE_PATCH
+                        + ": meeting " + uuid + " is not at version " + patch.getBaseVersion()));
+            }
+            // Con los grupos expandidos, el parche se recalcula sobre la base: lleva exactamente
+            // los invitados que entran y salen
+            MeetingEnvelope expanded = patch.withInvitedChanges(
+                    routingTable.expandInvitees(String.join(",", patch.getInvitedAdded())),
+                    routingTable.expandInvitees(String.join(",", patch.getInvitedRemoved())));
+            Meeting updated = expanded.applyTo(base);
+            MeetingEnvelope diff = MeetingEnvelope.patch(base, updated).withTrace(patch.getTrace());
+            Set<String> recipients = routingTable.resolveRecipients(organizer,
+                    String.join(",", updated.getInvitedEmployees()));
+            List<String> dropped = new ArrayList<>();
+            for (String employeeName : diff.getInvitedRemoved()) {
+                if (routingTable.isRegistered(employeeName) && !recipients.contains(employeeName)) {
+                    dropped.add(employeeName);
+                }
+            }
+            if (diff.getTrace() != null) {
+                long now = TraceLog.nowMicros();
+                diff = diff.withHop("central.routed", now);
+                TraceLog.record(diff.getTrace().getId(), "central.routed", now, null,
+                        "recipients=" + (recipients.size() + dropped.size()));
+            }
+
+            roomConflicts = bookRoom(updated);
+            if (isRoomRejection(roomConflicts)) {
+                return rejectRoom(updated, roomConflicts);
+            }
+            long version = diff.getVersion();
+            MeetingEnvelope full = null;
+            for (String employeeName : recipients) {
+                Meeting current = calendars.find(employeeName, uuid);
+                MeetingEnvelope message = diff;
+                if (current == null || current.getVersion() != base.getVersion()) {
+                    if (full == null) {
+                        full = MeetingEnvelope.of(updated).withTrace(diff.getTrace());
+                    }
+                    message = full;
+                }
+                deliveries.add(outboundQueues.enqueue(employeeName, uuid, version, message));
+            }
+            calendars.apply(updated, recipients);
+            if (!dropped.isEmpty()) {
+                // Misma eliminación que enviaba el cliente antes: solo la aplican los de la lista
+                Meeting removal = updated.copy();
+                removal.setInvitedEmployees(dropped);
+                removal.markAsDeleted();
+                removal.setVersion(updated.getVersion());
+                MeetingEnvelope tombstone = MeetingEnvelope.of(removal).withTrace(diff.getTrace());
+                for (String employeeName : dropped) {
+                    deliveries.add(outboundQueues.enqueue(employeeName, uuid, version, tombstone));
+                }
+                calendars.apply(removal, dropped);
+            }
+        }
+        routingTime.recordSince(startedAt);
+        return report(deliveries, roomConflicts);
+    }
+
+    // Reserva la sala de esta versión de la reunión y devuelve los solapes. Las reuniones sin UUID
+    // (formato antiguo) reciben uno nuevo en cada mensaje: no se pueden seguir de una versión a
+    // otra, así que no reservan sala.
+    private List<Meeting> bookRoom(Meeting meeting) {
+        if (roomBookings == null || meeting.getUuid() == null || meeting.getUuid().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return roomBookings.book(meeting, roomConflictPolicy == RoomConflictPolicy.REJECT);
+    }
+
+    // Con REJECT, los solapes significan que la reserva no se hizo
+    private boolean isRoomRejection(List<Meeting> roomConflicts) {
+        return roomConflictPolicy == RoomConflictPolicy.REJECT && !roomConflicts.isEmpty();
+    }
+
+    private CompletableFuture<DeliveryReport> rejectRoom(Meeting meeting, List<Meeting> roomConflicts) {
+        System.out.println("Rejected meeting " + meeting.getUuid() + ": room " + meeting.getLocation() + " already booked");
+        return CompletableFuture.completedFuture(DeliveryReport.rejected("Room " + meeting.getLocation()
+                + " is already booked: " + DeliveryReport.describe(roomConflicts.get(0))
+                + (roomConflicts.size() > 1 ? " and " + (roomConflicts.size() - 1) + " more" : "")));
+    }
+
+    private static CompletableFuture<DeliveryReport> report(List<CompletableFuture<DeliveryReport.Outcome>> deliveries,
+                                                            List<Meeting> roomConflicts) {
+        if (roomConflicts.isEmpty()) {
+            return DeliveryReport.collect(deliveries);
+        }
+        return DeliveryReport.collect(deliveries).thenApply(report -> report.flagRoomConflicts(roomConflicts));
+    }
+
+    // Disponibilidad conjunta de los empleados de la consulta (los grupos se expanden como en un
+    // mensaje); los nombres que no son empleados registrados se devuelven aparte
+    public FreeBusy.Result freeBusy(FreeBusy.Query query) {
+        long startedAt = System.nanoTime();
+        Set<String> employees = new LinkedHashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String employeeName : routingTable.expandInvitees(String.join(",", query.getEmployees()))) {
+            if (routingTable.isRegistered(employeeName)) {
+                employees.add(employeeName);
+            } else {
+                unknown.add(employeeName);
+            }
+        }
+        FreeBusy.Result result = calendars.freeBusy(query, employees, unknown);
+        freeBusyTime.recordSince(startedAt);
+        return result;
+    }
+    
+    public Map<String, Integer> getQueueDepths() {
+        return outboundQueues.getQueueDepths();
+    }
+    
+    public int getTotalQueueDepth() {
+        return outboundQueues.getTotalDepth();
+    }
+    
+    public long getCoalescedCount() {
+        return outboundQueues.getCoalescedCount();
+    }
+    
+    public Map<String, Long> getOutboxPendingBytes() {
+        return outbox.getPendingBytes();
+    }
+    
     @Override
     public void registerEmployee(String employeeName, int port) {
-        employeePorts.put(employeeName, port);
+        routingTable.registerEmployee(employeeName, port);
+        connectionPool.register(employeeName, getEmployeeHost(employeeName), port);
         System.out.println("Registered employee: " + employeeName + " on port " + port);
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package mediator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import model.Meeting;
+
+// Resultado de repartir un mensaje: un Outcome por destinatario
+public class DeliveryReport {
+    public enum Status {
+        DELIVERED,
+        // Sustituido en la cola por una versión más reciente de la misma reunión antes de enviarse
+        COALESCED,
+        // No se pudo entregar ahora; queda en el buzón persistente y se reintentará
+        DEFERRED,
+        FAILED
+    }
+
+    public static class Outcome {
+        private final String recipient;
+        private final Status status;
+        private final long latencyNanos;
+        private final String error;
+
+        public Outcome(String recipient, Status status, long latencyNanos, String error) {
+            this.recipient = recipient;
+            this.status = status;
+            this.latencyNanos = latencyNanos;
+            this.error = error;
+        }
+
+        public String getRecipient() {
+            return recipient;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+    // Reservas de la misma sala con las que se solapa la reunión (RoomConflictPolicy.FLAG)
+    private List<Meeting> roomConflicts = Collections.emptyList();
+    // Motivo por el que no se repartió el mensaje (RoomConflictPolicy.REJECT)
+    private String rejection;
+
+    public static DeliveryReport rejected(String reason) {
+        DeliveryReport report = new DeliveryReport();
+        report.rejection = reason;
+        return report;
+    }
+
+    public String getRejection() {
+        return rejection;
+    }
+
+    public DeliveryReport flagRoomConflicts(List<Meeting> conflicts) {
+        this.roomConflicts = conflicts;
+        return this;
+    }
+
+    public List<Meeting> getRoomConflicts() {
+        return roomConflicts;
+    }
+
+    public void record(Outcome outcome) {
+        outcomes.put(outcome.getRecipient(), outcome);
+    }
+
+    public Map<String, Outcome> getOutcomes() {
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    public List<String> getRecipients(Status status) {
+        List<String> recipients = new ArrayList<>();
+        for (Outcome outcome : outcomes.values()) {
+            if (outcome.getStatus() == status) {
+                recipients.add(outcome.getRecipient());
+            }
+        }
+        Collections.sort(recipients);
+        return recipients;
+    }
+
+    // Resumen en formato KEY=valor, una línea por estado (y una por cada reserva de la sala con la
+    // que choca), que se devuelve en el ACK al cliente
+    public String toSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (Status status : Status.values()) {
+            List<String> recipients = getRecipients(status);
+            if (!recipients.isEmpty()) {
+                sb.append(status.name()).append("=").append(String.join(",", recipients)).append("\n");
+            }
+        }
+        for (Meeting conflict : roomConflicts) {
+            sb.append("ROOM_CONFLICT=").append(describe(conflict)).append("\n");
+        }
+        return sb.toString();
+    }
+
+    public static String describe(Meeting booking) {
+        return booking.getStartTime() + "/" + booking.getEndTime() + " " + booking.getTopic()
+                + " (" + booking.getOrganizer() + ")";
+    }
+
+    // Agrupa los resultados individuales en un único informe cuando todos han terminado
+    public static CompletableFuture<DeliveryReport> collect(List<CompletableFuture<Outcome>> outcomes) {
+        DeliveryReport report = new DeliveryReport();
+        CompletableFuture<?>[] recorded = new CompletableFuture<?>[outcomes.size()];
+        for (int i = 0; i < outcomes.size(); i++) {
+            recorded[i] = outcomes.get(i).thenAccept(report::record);
+        }
+        return CompletableFuture.allOf(recorded).thenApply(ignored -> report);
+    }
+}
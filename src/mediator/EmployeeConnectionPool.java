@@ -0,0 +1,165 @@
+package mediator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import model.MeetingEnvelope;
+import protocol.AckTimeoutException;
+import protocol.FrameType;
+import protocol.FramedConnection;
+import protocol.RejectedException;
+
+// Pool de conexiones persistentes hacia los servidores de empleados.
+// Cada conexión admite varias peticiones en pipeline, así que se comparte entre hilos:
+// enviar un mensaje es una sola escritura en una conexión ya abierta más la espera de su ACK.
+public class EmployeeConnectionPool {
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final long PING_TIMEOUT_MS = 2000;
+
+    private final Map<String, EmployeeEndpoint> endpoints = new ConcurrentHashMap<>();
+    private final int connectionsPerEmployee;
+    private final long idleTimeoutMillis;
+    private final long ackTimeoutMillis;
+    private final ScheduledExecutorService healthChecker;
+
+    public EmployeeConnectionPool(int connectionsPerEmployee, long idleTimeoutMillis, long healthCheckIntervalMillis,
+                                  long ackTimeoutMillis) {
+        this.connectionsPerEmployee = Math.max(1, connectionsPerEmployee);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-pool-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkConnections,
+                healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void register(String employeeName, String host, int port) {
+        EmployeeEndpoint previous = endpoints.put(employeeName, new EmployeeEndpoint(host, port, connectionsPerEmployee));
+        if (previous != null) {
+            previous.closeAll();
+        }
+    }
+
+    public void send(String employeeName, MeetingEnvelope message) throws IOException {
+        EmployeeEndpoint endpoint = endpoints.get(employeeName);
+        if (endpoint == null) {
+            throw new IOException("Unknown employee " + employeeName);
+        }
+
+        int slot = endpoint.nextSlot();
+        FramedConnection connection = endpoint.connections.get(slot);
+        if (connection != null && connection.isOpen()) {
+            try {
+                FramedConnection.awaitAck(connection.requestMeeting(message), ackTimeoutMillis);
+                return;
+            } catch (RejectedException e) {
+                throw e;
+            } catch (AckTimeoutException e) {
+                // El servidor va lento pero la conexión sigue viva: cerrarla haría fallar las demás
+                // peticiones en pipeline. Tampoco se reconecta para reenviarlo aquí; el mensaje puede
+                // haber llegado, y quien llama decide si lo reintenta. Si la conexión está de verdad
+                // caída, lo detecta el PING de verificación.
+                throw e;
+            } catch (IOException e) {
+                // La conexión estaba caída (p. ej. el contenedor se reinició): reconectar una vez
+                endpoint.discard(slot, connection);
+            }
+        }
+
+        connection = endpoint.connect(slot);
+        FramedConnection.awaitAck(connection.requestMeeting(message), ackTimeoutMillis);
+    }
+
+    public void close() {
+        healthChecker.shutdownNow();
+        for (EmployeeEndpoint endpoint : endpoints.values()) {
+            endpoint.closeAll();
+        }
+    }
+
+    // Cierra las conexiones inactivas demasiado tiempo y comprueba el resto con un PING
+    private void checkConnections() {
+        long now = System.currentTimeMillis();
+        for (EmployeeEndpoint endpoint : endpoints.values()) {
+            for (int slot = 0; slot < endpoint.connections.length(); slot++) {
+                FramedConnection connection = endpoint.connections.get(slot);
+                if (connection == null) {
+                    continue;
+                }
+                if (!connection.isOpen() || (now - connection.getLastUsed() > idleTimeoutMillis
+                        && connection.getPendingCount() == 0)) {
+                    endpoint.discard(slot, connection);
+                    continue;
+                }
+                try {
+                    FramedConnection.awaitAck(connection.request(FrameType.PING, new byte[0]), PING_TIMEOUT_MS);
+                } catch (IOException e) {
+                    endpoint.discard(slot, connection);
+                }
+            }
+        }
+    }
+
+    private static class EmployeeEndpoint {
+        private final String host;
+        private final int port;
+        private final AtomicReferenceArray<FramedConnection> connections;
+        private final AtomicInteger roundRobin = new AtomicInteger();
+        // Dirección resuelta una sola vez; se vuelve a resolver si la conexión falla
+        private volatile InetSocketAddress address;
+
+        EmployeeEndpoint(String host, int port, int size) {
+            this.host = host;
+            this.port = port;
+            this.connections = new AtomicReferenceArray<>(size);
+        }
+
+        int nextSlot() {
+            return Math.floorMod(roundRobin.getAndIncrement(), connections.length());
+        }
+
+        synchronized FramedConnection connect(int slot) throws IOException {
+            FramedConnection existing = connections.get(slot);
+            if (existing != null && existing.isOpen()) {
+                // Otro hilo ya reconectó este slot
+                return existing;
+            }
+            InetSocketAddress target = address;
+            if (target == null || target.isUnresolved()) {
+                target = new InetSocketAddress(host, port);
+                address = target;
+            }
+            try {
+                FramedConnection connection = FramedConnection.connectNegotiated(target, CONNECT_TIMEOUT_MS);
+                connections.set(slot, connection);
+                return connection;
+            } catch (IOException e) {
+                address = null;
+                throw e;
+            }
+        }
+
+        synchronized void discard(int slot, FramedConnection connection) {
+            connections.compareAndSet(slot, connection, null);
+            connection.close();
+        }
+
+        synchronized void closeAll() {
+            for (int slot = 0; slot < connections.length(); slot++) {
+                FramedConnection connection = connections.getAndSet(slot, null);
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package mediator;
 
+import java.util.concurrent.CompletableFuture;
+import model.MeetingCodec;
+import model.MeetingEnvelope;
+
 public interface Mediator {
-    void sendMessage(String message, String sender);
+    // El reparto es asíncrono: el futuro se completa cuando todos los destinatarios tienen un resultado
+    CompletableFuture<DeliveryReport> sendMessage(MeetingEnvelope message, String sender);
     void registerEmployee(String employeeName, int port);
-}
\ No newline at end of file
+
+    default CompletableFuture<DeliveryReport> sendMessage(String message, String sender) {
+        return sendMessage(MeetingCodec.decode(message), sender);
+    }
+}
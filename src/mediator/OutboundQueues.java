@@ -0,0 +1,271 @@
+package mediator;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Meeting;
+import model.MeetingEnvelope;
+import protocol.AckTimeoutException;
+import protocol.RejectedException;
+import protocol.WireFormat;
+import util.Metrics;
+import util.TraceLog;
+
+// Colas de salida por destinatario, indexadas por UUID de reunión. Si llega una versión
+// más reciente de una reunión que todavía no se ha enviado, sustituye a la anterior en la cola:
+// el MeetingUpdateObserver solo conservaría la última de todos modos. Si la nueva es un parche,
+// se junta con la pendiente (MeetingEnvelope.merge) para que el destinatario no pierda cambios.
+// Cada destinatario tiene como mucho una entrega en curso, así que el orden se mantiene.
+// Si la entrega falla, el mensaje pasa al Outbox persistente y se reintenta desde allí.
+public class OutboundQueues {
+    // Entregas seguidas de un mismo destinatario antes de ceder el hilo a otras colas
+    private static final int DRAIN_BATCH = 32;
+    private static final Metrics.Counter fullResends = Metrics.counter("meetings_patches_resent_full_total",
+            "Patches answered with a missing base and resent as the whole meeting");
+
+    public interface Sender {
+        void send(String employeeName, MeetingEnvelope message) throws IOException;
+    }
+
+    // Versión de una reunión que tiene el empleado según el servidor central (CalendarDirectory::find)
+    public interface Versions {
+        Meeting find(String employeeName, String uuid);
+    }
+
+    private final Map<String, RecipientQueue> queues = new ConcurrentHashMap<>();
+    private final Sender sender;
+    private final Versions versions;
+    private final Executor executor;
+    private final Outbox outbox;
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong anonymousKeys = new AtomicLong();
+
+    public OutboundQueues(Sender sender, Versions versions, Executor executor, Outbox outbox) {
+        this.sender = sender;
+        this.versions = versions;
+        this.executor = executor;
+        this.outbox = outbox;
+    }
+
+    // Envía el mensaje; si es un parche y el destinatario contesta que no tiene su versión base, le
+    // envía la reunión completa que debería tener. Sin ella (el servidor central no la conoce) el
+    // NACK se propaga como cualquier otro rechazo.
+    static void send(Sender sender, Versions versions, String recipient, MeetingEnvelope message) throws IOException {
+        try {
+            sender.send(recipient, message);
+        } catch (RejectedException e) {
+            Meeting full = message.isPatch() && e.getReason().startsWith(WireFormat.MISSING_BASE)
+                    ? versions.find(recipient, message.getUuid())
+                    : null;
+            if (full == null || full.getVersion() < message.getVersion()) {
+                throw e;
+            }
+            System.out.println("Resending meeting " + message.getUuid() + " in full to " + recipient
+                    + " (" + e.getReason() + ")");
+            fullResends.increment();
+            sender.send(recipient, MeetingEnvelope.of(full).withTrace(message.getTrace()));
+        }
+    }
+
+    // version: la versión HybridClock del mensaje
+    public CompletableFuture<DeliveryReport.Outcome> enqueue(String recipient, String meetingUuid,
+                                                             long version, MeetingEnvelope message) {
+        String key = meetingUuid != null && !meetingUuid.isEmpty()
+                ? meetingUuid
+                : "no-uuid-" + anonymousKeys.incrementAndGet();
+        RecipientQueue queue = queues.computeIfAbsent(recipient, RecipientQueue::new);
+        return queue.offer(key, version, message);
+    }
+
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        for (RecipientQueue queue : queues.values()) {
+            depths.put(queue.recipient, queue.depth());
+        }
+        return depths;
+    }
+
+    public int getTotalDepth() {
+        int total = 0;
+        for (RecipientQueue queue : queues.values()) {
+            total += queue.depth();
+        }
+        return total;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private static class PendingUpdate {
+        final long version;
+        final MeetingEnvelope message;
+        final CompletableFuture<DeliveryReport.Outcome> result;
+        final long enqueuedAt = System.nanoTime();
+
+        PendingUpdate(long version, MeetingEnvelope message) {
+            this(version, message, new CompletableFuture<>());
+        }
+
+        PendingUpdate(long version, MeetingEnvelope message, CompletableFuture<DeliveryReport.Outcome> result) {
+            this.version = version;
+            this.message = message;
+            this.result = result;
+        }
+    }
+
+    private class RecipientQueue {
+        private final String recipient;
+        // Orden de llegada de la primera versión pendiente de cada reunión
+        private final LinkedHashMap<String, PendingUpdate> pending = new LinkedHashMap<>();
+        private boolean draining = false;
+        // Métricas por destinatario, creadas una vez con la cola
+        private final Metrics.Timer sendTime;
+        private final Metrics.Counter failures;
+        private final Metrics.Counter deferrals;
+
+        RecipientQueue(String recipient) {
+            this.recipient = recipient;
+            this.sendTime = Metrics.timer("meetings_send_seconds",
+                    "Time to deliver a meeting to an employee server and get its ACK", "recipient", recipient);
+            this.failures = Metrics.counter("meetings_delivery_failures_total",
+                    "Deliveries rejected by the recipient or lost", "recipient", recipient);
+            this.deferrals = Metrics.counter("meetings_delivery_deferred_total",
+                    "Deliveries stored in the outbox for a later retry", "recipient", recipient);
+        }
+
+        CompletableFuture<DeliveryReport.Outcome> offer(String key, long version, MeetingEnvelope message) {
+            PendingUpdate update = new PendingUpdate(version, message);
+            PendingUpdate superseded = null;
+            boolean startDrain = false;
+
+            synchronized (this) {
+                PendingUpdate existing = pending.get(key);
+                if (existing != null && existing.version > version) {
+                    // Ya hay una versión más reciente esperando: esta no llegaría a aplicarse
+                    superseded = update;
+                } else {
+                    if (existing != null) {
+                        superseded = existing;
+                        MeetingEnvelope merged = MeetingEnvelope.merge(existing.message, message);
+                        // Un parche sobre otra versión solo llega si la pendiente no cambiaba nada
+                        // en este destinatario (su calendario en el servidor central no la aplicó)
+                        if (merged != null && merged != message) {
+                            update = new PendingUpdate(version, merged, update.result);
+                        }
+                    }
+                    pending.put(key, update);
+                    if (!draining) {
+                        draining = true;
+                        startDrain = true;
+                    }
+                }
+            }
+
+            if (superseded != null) {
+                coalescedCount.incrementAndGet();
+                superseded.result.complete(new DeliveryReport.Outcome(recipient, DeliveryReport.Status.COALESCED,
+                        System.nanoTime() - superseded.enqueuedAt, null));
+            }
+            if (startDrain) {
+                executor.execute(this::drain);
+            }
+            return update.result;
+        }
+
+        synchronized int depth() {
+            return pending.size();
+        }
+
+        private void drain() {
+            for (int delivered = 0; ; delivered++) {
+                if (delivered == DRAIN_BATCH) {
+                    // Volver a encolar el drenado para no acaparar un hilo del reparto
+                    executor.execute(this::drain);
+                    return;
+                }
+                PendingUpdate next;
+                synchronized (this) {
+                    Iterator<PendingUpdate> iterator = pending.values().iterator();
+                    if (!iterator.hasNext()) {
+                        draining = false;
+                        return;
+                    }
+                    next = iterator.next();
+                    iterator.remove();
+                }
+                deliver(next);
+            }
+        }
+
+        private void deliver(PendingUpdate update) {
+            // Si el buzón tiene mensajes pendientes, este va detrás para no alterar el orden
+            if (outbox.hasPending(recipient)) {
+                defer(update, "recipient has pending outbox messages");
+                return;
+            }
+            // Cada destinatario recibe su propia copia con el salto del envío
+            MeetingEnvelope message = update.message;
+            if (message.getTrace() != null) {
+                long now = TraceLog.nowMicros();
+                message = message.withHop("central.send", now);
+                TraceLog.record(message.getTrace().getId(), "central.send", now, recipient);
+            }
+            try {
+                System.out.println("Sending message to " + recipient);
+                long startedAt = System.nanoTime();
+                send(sender, versions, recipient, message);
+                sendTime.recordSince(startedAt);
+                System.out.println("Message sent successfully to " + recipient);
+                trace(update, "central.delivered");
+                update.result.complete(new DeliveryReport.Outcome(recipient, DeliveryReport.Status.DELIVERED,
+                        System.nanoTime() - update.enqueuedAt, null));
+            } catch (RejectedException e) {
+                System.err.println("Error sending message to " + recipient + ": " + e.getMessage());
+                fail(update, e.getMessage());
+            } catch (AckTimeoutException e) {
+                // No se sabe si el destinatario lo aplicó. Se reintenta desde el outbox igual que un fallo
+                // de conexión: si ya lo tenía, la copia trae la misma versión y el last-write-wins del
+                // empleado la descarta (KEPT), así que el duplicado no cambia nada.
+                System.err.println("No acknowledgement from " + recipient + ": " + e.getMessage());
+                defer(update, "ack timeout, the recipient may already have it");
+            } catch (IOException e) {
+                System.err.println("Error sending message to " + recipient + ": " + e.getMessage());
+                defer(update, e.getMessage());
+            }
+        }
+
+        private void trace(PendingUpdate update, String stage) {
+            if (update.message.getTrace() != null) {
+                TraceLog.record(update.message.getTrace().getId(), stage, TraceLog.nowMicros(), recipient);
+            }
+        }
+
+        private void defer(PendingUpdate update, String reason) {
+            deferrals.increment();
+            try {
+                outbox.store(recipient, update.message);
+                System.out.println("Message for " + recipient + " stored in outbox (" + reason + ")");
+                trace(update, "central.deferred");
+                update.result.complete(new DeliveryReport.Outcome(recipient, DeliveryReport.Status.DEFERRED,
+                        System.nanoTime() - update.enqueuedAt, reason));
+            } catch (IOException e) {
+                System.err.println("Error storing message for " + recipient + " in outbox: " + e.getMessage());
+                fail(update, e.getMessage());
+            }
+        }
+
+        private void fail(PendingUpdate update, String reason) {
+            failures.increment();
+            trace(update, "central.failed");
+            update.result.complete(new DeliveryReport.Outcome(recipient, DeliveryReport.Status.FAILED,
+                    System.nanoTime() - update.enqueuedAt, reason));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package mediator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import model.MeetingCodec;
+import model.MeetingEnvelope;
+import protocol.RejectedException;
+
+// Buzón de salida persistente por destinatario (store-and-forward). Los mensajes que no se
+// pudieron entregar se añaden a <dir>/<empleado>.log y se reintentan en orden con backoff
+// exponencial; <empleado>.offset guarda hasta dónde se ha entregado, así que el buzón
+// sobrevive a un reinicio del servidor central. La entrega es al menos una vez: un duplicado
+// lo descarta el last-write-wins del servidor del empleado.
+public class Outbox {
+    private static final String LOG_SUFFIX = ".log";
+    private static final String OFFSET_SUFFIX = ".offset";
+
+    private final File directory;
+    private final OutboundQueues.Sender sender;
+    private final OutboundQueues.Versions versions;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Map<String, RecipientOutbox> outboxes = new ConcurrentHashMap<>();
+
+    public Outbox(File directory, OutboundQueues.Sender sender, OutboundQueues.Versions versions, Executor executor,
+                  long initialBackoffMillis, long maxBackoffMillis) {
+        this.directory = directory;
+        this.sender = sender;
+        this.versions = versions;
+        this.executor = executor;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.err.println("Could not create outbox directory " + directory);
+        }
+    }
+
+    // Retoma los buzones que quedaron con mensajes pendientes antes del reinicio
+    public void recover() {
+        File[] logs = directory.listFiles((dir, name) -> name.endsWith(LOG_SUFFIX));
+        if (logs == null) {
+            return;
+        }
+        for (File log : logs) {
+            String recipient = log.getName().substring(0, log.getName().length() - LOG_SUFFIX.length());
+            try {
+                RecipientOutbox outbox = outboxFor(recipient);
+                long pending = outbox.pendingBytes();
+                if (pending > 0) {
+                    System.out.println("Recovered outbox for " + recipient + " (" + pending + " bytes pending)");
+                    scheduleRetry(outbox, 0);
+                }
+            } catch (IOException e) {
+                System.err.println("Error recovering outbox for " + recipient + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public boolean hasPending(String recipient) {
+        RecipientOutbox outbox = outboxes.get(recipient);
+        if (outbox == null) {
+            return false;
+        }
+        try {
+            return outbox.pendingBytes() > 0;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    // Guarda el mensaje al final del buzón; no bloquea el reparto esperando al destinatario
+    public void store(String recipient, MeetingEnvelope message) throws IOException {
+        RecipientOutbox outbox = outboxFor(recipient);
+        // En disco se guarda el texto: el buzón sigue siendo legible si cambia el diccionario de nombres
+        outbox.append(message.getText());
+        synchronized (outbox) {
+            if (!outbox.retryScheduled) {
+                scheduleRetry(outbox, outbox.backoffMillis);
+            }
+        }
+    }
+
+    public Map<String, Long> getPendingBytes() {
+        Map<String, Long> pending = new TreeMap<>();
+        for (RecipientOutbox outbox : outboxes.values()) {
+            try {
+                pending.put(outbox.recipient, outbox.pendingBytes());
+            } catch (IOException e) {
+                pending.put(outbox.recipient, -1L);
+            }
+        }
+        return pending;
+    }
+
+    private RecipientOutbox outboxFor(String recipient) throws IOException {
+        RecipientOutbox outbox = outboxes.get(recipient);
+        if (outbox == null) {
+            synchronized (outboxes) {
+                outbox = outboxes.get(recipient);
+                if (outbox == null) {
+                    outbox = new RecipientOutbox(recipient);
+                    outboxes.put(recipient, outbox);
+                }
+            }
+        }
+        return outbox;
+    }
+
+    private void scheduleRetry(RecipientOutbox outbox, long delayMillis) {
+        synchronized (outbox) {
+            outbox.retryScheduled = true;
+        }
+        scheduler.schedule(() -> executor.execute(() -> retry(outbox)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Entrega los mensajes pendientes en orden; al primer fallo se reprograma con más espera
+    private void retry(RecipientOutbox outbox) {
+        while (true) {
+            MeetingEnvelope message;
+            try {
+                String text = outbox.peek();
+                message = text != null ? MeetingCodec.decode(text) : null;
+            } catch (IOException e) {
+                System.err.println("Error reading outbox for " + outbox.recipient + ": " + e.getMessage());
+                rescheduleAfterFailure(outbox);
+                return;
+            }
+
+            if (message == null) {
+                synchronized (outbox) {
+                    // Puede haberse añadido algo entre peek() y aquí
+                    try {
+                        if (outbox.pendingBytes() > 0) {
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        // Se reintentará en la próxima llamada a store()
+                    }
+                    outbox.retryScheduled = false;
+                    outbox.backoffMillis = initialBackoffMillis;
+                }
+                System.out.println("Outbox for " + outbox.recipient + " drained");
+                return;
+            }
+
+            try {
+                // Un parche cuya base le falta al destinatario se sustituye por la reunión completa
+                OutboundQueues.send(sender, versions, outbox.recipient, message);
+            } catch (RejectedException e) {
+                // El destinatario lo recibió y lo rechazó: reintentarlo no cambiaría nada
+                System.err.println("Outbox message rejected by " + outbox.recipient + ": " + e.getMessage());
+            } catch (IOException e) {
+                System.err.println("Outbox retry to " + outbox.recipient + " failed: " + e.getMessage());
+                rescheduleAfterFailure(outbox);
+                return;
+            }
+
+            try {
+                outbox.markDelivered();
+            } catch (IOException e) {
+                System.err.println("Error updating outbox offset for " + outbox.recipient + ": " + e.getMessage());
+                rescheduleAfterFailure(outbox);
+                return;
+            }
+        }
+    }
+
+    private void rescheduleAfterFailure(RecipientOutbox outbox) {
+        long delay;
+        synchronized (outbox) {
+            delay = outbox.backoffMillis;
+            outbox.backoffMillis = Math.min(outbox.backoffMillis * 2, maxBackoffMillis);
+        }
+        scheduleRetry(outbox, delay);
+    }
+
+    private class RecipientOutbox {
+        private final String recipient;
+        private final RandomAccessFile log;
+        private final RandomAccessFile offsetFile;
+        private long deliveredOffset;
+        private boolean retryScheduled = false;
+        private long backoffMillis = initialBackoffMillis;
+
+        RecipientOutbox(String recipient) throws IOException {
+            this.recipient = recipient;
+            this.log = new RandomAccessFile(new File(directory, recipient + LOG_SUFFIX), "rw");
+            this.offsetFile = new RandomAccessFile(new File(directory, recipient + OFFSET_SUFFIX), "rw");
+            this.deliveredOffset = offsetFile.length() >= Long.BYTES ? offsetFile.readLong() : 0;
+            if (deliveredOffset > log.length()) {
+                deliveredOffset = log.length();
+            }
+            truncatePartialRecord();
+        }
+
+        synchronized void append(String message) throws IOException {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            long start = log.length();
+            try {
+                log.seek(start);
+                log.writeInt(bytes.length);
+                log.write(bytes);
+                log.getFD().sync();
+            } catch (IOException e) {
+                // Sin un registro a medias detrás del cual irían los siguientes
+                log.setLength(start);
+                throw e;
+            }
+        }
+
+        // Un corte del servidor a mitad de append() deja al final un registro incompleto que no se
+        // podría leer nunca y dejaría el buzón atascado: se descarta al abrirlo
+        private void truncatePartialRecord() throws IOException {
+            long end = deliveredOffset;
+            long next;
+            while (end < log.length() && (next = recordEnd(end)) >= 0) {
+                end = next;
+            }
+            if (end < log.length()) {
+                System.err.println("Discarding " + (log.length() - end) + " bytes of a partial record in the outbox for "
+                        + recipient);
+                log.setLength(end);
+            }
+        }
+
+        // Fin del registro que empieza en offset, o -1 si está incompleto o su longitud no cabe en el archivo
+        private long recordEnd(long offset) throws IOException {
+            long available = log.length() - offset;
+            if (available < Integer.BYTES) {
+                return -1;
+            }
+            log.seek(offset);
+            int length = log.readInt();
+            if (length < 0 || length > available - Integer.BYTES) {
+                return -1;
+            }
+            return offset + Integer.BYTES + length;
+        }
+
+        synchronized long pendingBytes() throws IOException {
+            return log.length() - deliveredOffset;
+        }
+
+        synchronized String peek() throws IOException {
+            if (deliveredOffset >= log.length()) {
+                return null;
+            }
+            long end = recordEnd(deliveredOffset);
+            if (end < 0) {
+                // Registro dañado: lo que queda detrás no se puede separar en mensajes
+                System.err.println("Discarding " + (log.length() - deliveredOffset)
+                        + " unreadable bytes in the outbox for " + recipient);
+                log.setLength(deliveredOffset);
+                return null;
+            }
+            byte[] bytes = new byte[(int) (end - deliveredOffset - Integer.BYTES)];
+            log.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        synchronized void markDelivered() throws IOException {
+            long end = recordEnd(deliveredOffset);
+            deliveredOffset = end >= 0 ? end : log.length();
+            if (deliveredOffset >= log.length()) {
+                // Todo entregado: se vacía el buzón para que no crezca indefinidamente
+                log.setLength(0);
+                deliveredOffset = 0;
+            }
+            offsetFile.seek(0);
+            offsetFile.writeLong(deliveredOffset);
+            offsetFile.getFD().sync();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package mediator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.Meeting;
+import model.MeetingTimeIndex;
+import util.Metrics;
+import util.StripedLock;
+
+// Reservas de salas vistas desde el servidor central: un MeetingTimeIndex por sala (la ubicación
+// normalizada) con las reuniones vigentes que la ocupan. Comprobar y reservar se hace bajo el
+// monitor de la sala en un StripedLock: dos reservas de la misma sala no pueden colarse a la vez,
+// y las de salas distintas se comprueban en paralelo sin un cerrojo global. La comprobación es una
+// consulta de solapamiento en el árbol de intervalos, O(log n) para n reservas de la sala.
+public class RoomBookings {
+    private static final Metrics.Counter conflictsFound = Metrics.counter("meetings_room_conflicts_total",
+            "Meetings that overlapped another booking of the same room");
+
+    private final Map<String, MeetingTimeIndex> rooms = new ConcurrentHashMap<>();
+    // Sala que ocupa cada reunión, para liberarla si cambia de sala o se elimina
+    private final Map<String, String> roomOf = new ConcurrentHashMap<>();
+    private final StripedLock locks = StripedLock.forCores();
+
+    // Reserva la sala para esta versión de la reunión y devuelve las reservas con las que se
+    // solapa. Con reject, si hay solapes la reserva no se hace.
+    public List<Meeting> book(Meeting meeting, boolean reject) {
+        List<Meeting> conflicts = reserve(meeting, reject);
+        if (!conflicts.isEmpty()) {
+            conflictsFound.increment();
+        }
+        return conflicts;
+    }
+
+    // Reservas ya existentes (al cargar los calendarios): se anotan sin comprobar
+    public void restore(Meeting meeting) {
+        reserve(meeting, false);
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    private List<Meeting> reserve(Meeting meeting, boolean reject) {
+        String uuid = meeting.getUuid();
+        String room = roomKey(meeting.getLocation());
+        if (meeting.isDeleted() || room == null || meeting.getStartTime() == null) {
+            release(meeting);
+            return Collections.emptyList();
+        }
+        List<Meeting> conflicts;
+        synchronized (locks.lockFor(room)) {
+            MeetingTimeIndex bookings = rooms.computeIfAbsent(room, key -> new MeetingTimeIndex());
+            Meeting current = bookings.get(uuid);
+            if (current != null && isOlder(meeting.getVersion(), current)) {
+                // Ya hay una versión más reciente reservada
+                return Collections.emptyList();
+            }
+            conflicts = bookings.conflictsWith(meeting);
+            if (reject && !conflicts.isEmpty()) {
+                return conflicts;
+            }
+            bookings.put(meeting);
+        }
+        String previousRoom = roomOf.put(uuid, room);
+        if (previousRoom != null && !previousRoom.equals(room)) {
+            remove(previousRoom, uuid, meeting.getVersion(), null);
+        }
+        return conflicts;
+    }
+
+    private void release(Meeting meeting) {
+        String uuid = meeting.getUuid();
+        String room = roomOf.get(uuid);
+        List<String> removedInvitees = meeting.isDeleted() ? meeting.getInvitedEmployees() : null;
+        if (room != null && remove(room, uuid, meeting.getVersion(), removedInvitees)) {
+            roomOf.remove(uuid, room);
+        }
+    }
+
+    // removedInvitees es la lista de una eliminación (null si la reunión cambió de sala o se quedó
+    // sin ella). La eliminación que se envía a los invitados quitados de una reunión (envío sin
+    // parches) solo lleva a esos invitados: la reunión sigue en pie y conserva la sala. Solo se
+    // libera con una eliminación que incluya a todos los invitados de la versión reservada.
+    private boolean remove(String room, String uuid, long version, List<String> removedInvitees) {
+        synchronized (locks.lockFor(room)) {
+            MeetingTimeIndex bookings = rooms.get(room);
+            Meeting current = bookings != null ? bookings.get(uuid) : null;
+            if (current == null || isOlder(version, current)) {
+                return false;
+            }
+            if (removedInvitees != null && !removedInvitees.containsAll(current.getInvitedEmployees())) {
+                return false;
+            }
+            bookings.remove(uuid);
+            return true;
+        }
+    }
+
+    private static boolean isOlder(long version, Meeting current) {
+        return version != 0 && current.getVersion() != 0 && version < current.getVersion();
+    }
+
+    // La ubicación es texto libre: "Sala 1", "sala 1 " y "SALA  1" son la misma sala
+    static String roomKey(String location) {
+        if (location == null) {
+            return null;
+        }
+        // Sin expresiones regulares: se llama en cada mensaje
+        StringBuilder key = new StringBuilder(location.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < location.length(); i++) {
+            char c = location.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            key.append(c);
+        }
+        return key.length() == 0 ? null : key.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,23 @@
+package mediator;
+
+// Qué hace el servidor central cuando una reunión ocupa una sala ya reservada a la misma hora:
+//   OFF    no se comprueba
+//   FLAG   se reparte igual y el ACK al organizador lista las reservas con las que choca
+//   REJECT no se reparte: el organizador recibe NACK con el motivo
+public enum RoomConflictPolicy {
+    OFF,
+    FLAG,
+    REJECT;
+
+    public static RoomConflictPolicy parse(String value, RoomConflictPolicy defaultPolicy) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultPolicy;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown room conflict policy '" + value + "', using " + defaultPolicy);
+            return defaultPolicy;
+        }
+    }
+}
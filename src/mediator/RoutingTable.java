@@ -0,0 +1,123 @@
+package mediator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tabla de rutas del servidor central. Los destinatarios se resuelven directamente
+// desde la lista de invitados (O(invitados)) en lugar de recorrer todos los empleados,
+// y las listas de distribución (@grupo) se expanden con un índice de miembros precalculado.
+public class RoutingTable {
+    public static final String GROUP_PREFIX = "@";
+
+    private final Map<String, Integer> employeePorts = new ConcurrentHashMap<>();
+    // Definición tal como se configuró (puede incluir otros grupos) y miembros ya expandidos
+    private final Map<String, List<String>> groupDefinitions = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<String>> groupMembers = Collections.emptyMap();
+
+    public void registerEmployee(String employeeName, int port) {
+        employeePorts.put(employeeName, port);
+    }
+
+    public boolean isRegistered(String employeeName) {
+        return employeePorts.containsKey(employeeName);
+    }
+
+    public Integer getPort(String employeeName) {
+        return employeePorts.get(employeeName);
+    }
+
+    public Set<String> getEmployeeNames() {
+        return Collections.unmodifiableSet(employeePorts.keySet());
+    }
+
+    public synchronized void defineGroup(String groupName, List<String> members) {
+        groupDefinitions.put(normalizeGroup(groupName), new ArrayList<>(members));
+        rebuildGroupIndex();
+    }
+
+    public Set<String> getGroupMembers(String groupName) {
+        Set<String> members = groupMembers.get(normalizeGroup(groupName));
+        return members != null ? members : Collections.emptySet();
+    }
+
+    public static boolean isGroup(String invitee) {
+        return invitee.startsWith(GROUP_PREFIX);
+    }
+
+    // Destinatarios de un mensaje: organizador más invitados (con los grupos expandidos),
+    // sin duplicados y solo si son empleados registrados
+    public Set<String> resolveRecipients(String organizer, String invitedLine) {
+        Set<String> recipients = new LinkedHashSet<>();
+        if (organizer != null && employeePorts.containsKey(organizer)) {
+            recipients.add(organizer);
+        }
+        for (String invitee : expandInvitees(invitedLine)) {
+            if (employeePorts.containsKey(invitee)) {
+                recipients.add(invitee);
+            }
+        }
+        return recipients;
+    }
+
+    // Lista de invitados con los grupos sustituidos por sus miembros, en orden y sin duplicados
+    public Set<String> expandInvitees(String invitedLine) {
+        Set<String> invitees = new LinkedHashSet<>();
+        if (invitedLine == null || invitedLine.isEmpty()) {
+            return invitees;
+        }
+        Map<String, Set<String>> members = groupMembers;
+        for (String token : invitedLine.split(",")) {
+            String invitee = token.trim();
+            if (invitee.isEmpty()) {
+                continue;
+            }
+            if (isGroup(invitee)) {
+                Set<String> expanded = members.get(normalizeGroup(invitee));
+                if (expanded != null) {
+                    invitees.addAll(expanded);
+                }
+            } else {
+                invitees.add(invitee);
+            }
+        }
+        return invitees;
+    }
+
+    // Recalcula los miembros de todos los grupos (resolviendo grupos anidados) y publica el índice de una vez
+    private void rebuildGroupIndex() {
+        Map<String, Set<String>> index = new ConcurrentHashMap<>();
+        for (String group : groupDefinitions.keySet()) {
+            Set<String> members = new LinkedHashSet<>();
+            collectMembers(group, members, new HashSet<>());
+            index.put(group, Collections.unmodifiableSet(members));
+        }
+        groupMembers = index;
+    }
+
+    private void collectMembers(String group, Set<String> members, Set<String> visited) {
+        if (!visited.add(group)) {
+            return; // Evitar ciclos entre grupos
+        }
+        List<String> definition = groupDefinitions.get(group);
+        if (definition == null) {
+            return;
+        }
+        for (String member : definition) {
+            if (isGroup(member)) {
+                collectMembers(normalizeGroup(member), members, visited);
+            } else {
+                members.add(member);
+            }
+        }
+    }
+
+    private static String normalizeGroup(String groupName) {
+        return groupName.startsWith(GROUP_PREFIX) ? groupName.substring(GROUP_PREFIX.length()) : groupName;
+    }
+}
@@ -0,0 +1,357 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Formato binario versionado de una reunión:
+//   versión(1) | flags(1) | uuid | tema | organizador | ubicación | inicio | fin | última modificación | invitados
+//   [| traza] [| versión HybridClock]
+// El UUID va como dos longs (o como texto si no es un UUID canónico), las fechas como segundos
+// desde epoch más nanosegundos en varint, y los nombres de empleado como su posición en un
+// NameDictionary compartido (0 = nombre fuera del diccionario, escrito a continuación como texto).
+// Decodificar no necesita LocalDateTime.parse ni recorrer texto. La traza y la versión son
+// opcionales y van al final: un decodificador que no conoce su flag simplemente no lee esos bytes.
+public class BinaryMeetingCodec {
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final int FLAG_DELETED = 0x01;
+    private static final int FLAG_TOMBSTONE = 0x02;
+    private static final int FLAG_TEXT_UUID = 0x04;
+    private static final int FLAG_START = 0x08;
+    private static final int FLAG_END = 0x10;
+    private static final int FLAG_LAST_MODIFIED = 0x20;
+    private static final int FLAG_TRACE = 0x40;
+    private static final int FLAG_VERSION = 0x80;
+
+    private static final int BATCH_COMPRESSED = 0x01;
+
+    private final NameDictionary dictionary;
+
+    public BinaryMeetingCodec(NameDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public NameDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public byte[] encode(MeetingEnvelope meeting) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        encode(meeting, out);
+        return out.toByteArray();
+    }
+
+    public void encode(MeetingEnvelope meeting, ByteArrayOutputStream out) {
+        UUID binaryUuid = canonicalUuid(meeting.getUuid());
+        LocalDateTime start = meeting.getStartTime();
+        LocalDateTime end = meeting.getEndTime();
+        LocalDateTime lastModified = meeting.getLastModified();
+
+        int flags = 0;
+        if (meeting.isDeleted()) {
+            flags |= FLAG_DELETED;
+        }
+        if (meeting.isTombstone()) {
+            flags |= FLAG_TOMBSTONE;
+        }
+        if (binaryUuid == null) {
+            flags |= FLAG_TEXT_UUID;
+        }
+        if (start != null) {
+            flags |= FLAG_START;
+        }
+        if (end != null) {
+            flags |= FLAG_END;
+        }
+        if (lastModified != null) {
+            flags |= FLAG_LAST_MODIFIED;
+        }
+        if (meeting.getTrace() != null) {
+            flags |= FLAG_TRACE;
+        }
+        long version = meeting.getVersion();
+        if (version != 0) {
+            flags |= FLAG_VERSION;
+        }
+
+        out.write(FORMAT_VERSION);
+        out.write(flags);
+        if (binaryUuid != null) {
+            writeLong(out, binaryUuid.getMostSignificantBits());
+            writeLong(out, binaryUuid.getLeastSignificantBits());
+        } else {
+            writeString(out, meeting.getUuid());
+        }
+        writeString(out, meeting.getTopic());
+        writeName(out, meeting.getOrganizer());
+        writeString(out, meeting.getLocation());
+        writeTime(out, start);
+        writeTime(out, end);
+        writeTime(out, lastModified);
+        List<String> invited = meeting.getInvited();
+        writeVarLong(out, invited.size());
+        for (String employee : invited) {
+            writeName(out, employee);
+        }
+        if (meeting.getTrace() != null) {
+            writeString(out, meeting.getTrace().encode());
+        }
+        if (version != 0) {
+            writeVarLong(out, version);
+        }
+    }
+
+    public MeetingEnvelope decode(byte[] data) {
+        return decode(new Reader(data, 0, data.length));
+    }
+
+    MeetingEnvelope decode(Reader in) {
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary meeting version " + version);
+        }
+        int flags = in.readByte();
+
+        MeetingEnvelope meeting = new MeetingEnvelope(null);
+        if ((flags & FLAG_TEXT_UUID) != 0) {
+            meeting.uuid = in.readString();
+        } else {
+            meeting.uuid = new UUID(in.readLong(), in.readLong()).toString();
+        }
+        meeting.topic = in.readString();
+        meeting.organizer = readName(in);
+        meeting.location = in.readString();
+        meeting.startTime = (flags & FLAG_START) != 0 ? readTime(in) : null;
+        meeting.endTime = (flags & FLAG_END) != 0 ? readTime(in) : null;
+        meeting.lastModifiedTime = (flags & FLAG_LAST_MODIFIED) != 0 ? readTime(in) : null;
+        meeting.deleted = (flags & FLAG_DELETED) != 0;
+        meeting.tombstone = (flags & FLAG_TOMBSTONE) != 0;
+        int count = (int) in.readVarLong();
+        List<String> invited = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            invited.add(readName(in));
+        }
+        meeting.invited = Collections.unmodifiableList(invited);
+        if ((flags & FLAG_TRACE) != 0) {
+            meeting.trace = Trace.decode(in.readString());
+        }
+        if ((flags & FLAG_VERSION) != 0) {
+            meeting.version = in.readVarLong();
+        }
+        return meeting;
+    }
+
+    // Lote de reuniones: flags(1) | número de reuniones (varint) | reuniones seguidas.
+    // Con compress el cuerpo va comprimido con Deflate y el flag lo indica.
+    public byte[] encodeBatch(List<MeetingEnvelope> meetings, boolean compress) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64 + meetings.size() * 96);
+        writeVarLong(body, meetings.size());
+        for (MeetingEnvelope meeting : meetings) {
+            encode(meeting, body);
+        }
+        byte[] bytes = compress ? compress(body.toByteArray()) : body.toByteArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 1);
+        out.write(compress ? BATCH_COMPRESSED : 0);
+        out.write(bytes, 0, bytes.length);
+        return out.toByteArray();
+    }
+
+    public List<MeetingEnvelope> decodeBatch(byte[] data, int maxSize) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("Empty meeting batch");
+        }
+        byte[] body;
+        if ((data[0] & BATCH_COMPRESSED) != 0) {
+            byte[] compressed = new byte[data.length - 1];
+            System.arraycopy(data, 1, compressed, 0, compressed.length);
+            body = decompress(compressed, maxSize);
+        } else {
+            body = data;
+        }
+        Reader in = body == data ? new Reader(data, 1, data.length - 1) : new Reader(body, 0, body.length);
+        int count = (int) in.readVarLong();
+        List<MeetingEnvelope> meetings = new ArrayList<>(Math.min(count, 4096));
+        for (int i = 0; i < count; i++) {
+            meetings.add(decode(in));
+        }
+        return meetings;
+    }
+
+    // Compresión opcional para payloads grandes (lotes, snapshots, reuniones con muchos invitados)
+    public static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static byte[] decompress(byte[] data, int maxSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed payload");
+                }
+                out.write(buffer, 0, inflated);
+                if (out.size() > maxSize) {
+                    throw new IllegalArgumentException("Compressed payload exceeds " + maxSize + " bytes");
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed payload: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Solo los UUID en forma canónica se guardan como dos longs; el resto conserva su texto exacto
+    private static UUID canonicalUuid(String uuid) {
+        if (uuid == null || uuid.length() != 36) {
+            return null;
+        }
+        try {
+            UUID parsed = UUID.fromString(uuid);
+            return parsed.toString().equals(uuid) ? parsed : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void writeName(ByteArrayOutputStream out, String name) {
+        int index = name != null ? dictionary.indexOf(name) : -1;
+        writeVarLong(out, index + 1);
+        if (index < 0) {
+            writeString(out, name);
+        }
+    }
+
+    private String readName(Reader in) {
+        int index = (int) in.readVarLong();
+        if (index == 0) {
+            return in.readString();
+        }
+        if (index > dictionary.size()) {
+            throw new IllegalArgumentException("Name index " + index + " outside dictionary");
+        }
+        return dictionary.get(index - 1);
+    }
+
+    private static void writeTime(ByteArrayOutputStream out, LocalDateTime time) {
+        if (time != null) {
+            long seconds = time.toEpochSecond(ZoneOffset.UTC);
+            writeVarLong(out, (seconds << 1) ^ (seconds >> 63)); // zigzag: fechas anteriores a 1970
+            writeVarLong(out, time.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(Reader in) {
+        long zigzag = in.readVarLong();
+        long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+        return LocalDateTime.ofEpochSecond(seconds, (int) in.readVarLong(), ZoneOffset.UTC);
+    }
+
+    // Cadenas como longitud + 1 en varint seguida del UTF-8; 0 significa null
+    static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    // Lectura secuencial sobre un array sin copiarlo; cualquier dato truncado es un error
+    static class Reader {
+        private final byte[] data;
+        private final int end;
+        private int position;
+
+        Reader(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        int readByte() {
+            require(1);
+            return data[position++] & 0xFF;
+        }
+
+        long readLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            int size = (int) (length - 1);
+            require(size);
+            String value = new String(data, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (bytes < 0 || end - position < bytes) {
+                throw new IllegalArgumentException("Truncated binary meeting");
+            }
+        }
+    }
+}
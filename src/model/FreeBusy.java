@@ -0,0 +1,317 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Consulta de disponibilidad de varios empleados en una ventana de tiempo. La petición y la
+// respuesta viajan como texto KEY=valor, una línea por campo (igual que las reuniones):
+//   petición:  EMPLOYEES=a,b,@grupo  FROM=  TO=  DURATION_MINUTES=  SLOTS=  [HOURS=09:00-17:00]
+//   respuesta: BUSY=inicio/fin  FREE=inicio/fin  (una línea por intervalo)  [UNKNOWN=a,b]
+public class FreeBusy {
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+    public static final int DEFAULT_SLOTS = 5;
+
+    // Intervalo [start, end)
+    public static class Slot {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        public Slot(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public Duration getDuration() {
+            return Duration.between(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return start + "/" + end;
+        }
+
+        static Slot parse(String value) {
+            int slash = value.indexOf('/');
+            if (slash < 0) {
+                throw new IllegalArgumentException("Invalid interval: " + value);
+            }
+            return new Slot(LocalDateTime.parse(value.substring(0, slash)), LocalDateTime.parse(value.substring(slash + 1)));
+        }
+    }
+
+    public static class Query {
+        private final List<String> employees;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final int durationMinutes;
+        private final int slots;
+        // Horario diario en el que se buscan huecos; null para el día completo
+        private final LocalTime dayStart;
+        private final LocalTime dayEnd;
+
+        public Query(List<String> employees, LocalDateTime from, LocalDateTime to, int durationMinutes, int slots,
+                     LocalTime dayStart, LocalTime dayEnd) {
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("FROM must be before TO");
+            }
+            if (durationMinutes <= 0 || slots < 0) {
+                throw new IllegalArgumentException("DURATION_MINUTES must be positive and SLOTS not negative");
+            }
+            if ((dayStart == null) != (dayEnd == null) || (dayStart != null && !dayStart.isBefore(dayEnd))) {
+                throw new IllegalArgumentException("HOURS must be start-end within the same day");
+            }
+            this.employees = employees;
+            this.from = from;
+            this.to = to;
+            this.durationMinutes = durationMinutes;
+            this.slots = slots;
+            this.dayStart = dayStart;
+            this.dayEnd = dayEnd;
+        }
+
+        public List<String> getEmployees() {
+            return employees;
+        }
+
+        public LocalDateTime getFrom() {
+            return from;
+        }
+
+        public LocalDateTime getTo() {
+            return to;
+        }
+
+        public int getDurationMinutes() {
+            return durationMinutes;
+        }
+
+        public int getSlots() {
+            return slots;
+        }
+
+        public String encode() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("EMPLOYEES=").append(String.join(",", employees)).append("\n");
+            sb.append("FROM=").append(from).append("\n");
+            sb.append("TO=").append(to).append("\n");
+            sb.append("DURATION_MINUTES=").append(durationMinutes).append("\n");
+            sb.append("SLOTS=").append(slots).append("\n");
+            if (dayStart != null) {
+                sb.append("HOURS=").append(dayStart).append("-").append(dayEnd).append("\n");
+            }
+            return sb.toString();
+        }
+
+        public static Query decode(String text) {
+            List<String> employees = new ArrayList<>();
+            LocalDateTime from = null;
+            LocalDateTime to = null;
+            int durationMinutes = DEFAULT_DURATION_MINUTES;
+            int slots = DEFAULT_SLOTS;
+            LocalTime dayStart = null;
+            LocalTime dayEnd = null;
+            try {
+                for (String line : text.split("\n")) {
+                    int equals = line.indexOf('=');
+                    if (equals < 0) {
+                        continue;
+                    }
+                    String key = line.substring(0, equals).trim();
+                    String value = line.substring(equals + 1).trim();
+                    if (key.equals("EMPLOYEES")) {
+                        for (String employee : value.split(",")) {
+                            if (!employee.trim().isEmpty()) {
+                                employees.add(employee.trim());
+                            }
+                        }
+                    } else if (key.equals("FROM")) {
+                        from = LocalDateTime.parse(value);
+                    } else if (key.equals("TO")) {
+                        to = LocalDateTime.parse(value);
+                    } else if (key.equals("DURATION_MINUTES")) {
+                        durationMinutes = Integer.parseInt(value);
+                    } else if (key.equals("SLOTS")) {
+                        slots = Integer.parseInt(value);
+                    } else if (key.equals("HOURS") && !value.isEmpty()) {
+                        String[] hours = value.split("-");
+                        dayStart = LocalTime.parse(hours[0].trim());
+                        dayEnd = LocalTime.parse(hours[1].trim());
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid free/busy query: " + e.getMessage());
+            }
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Free/busy query needs FROM and TO");
+            }
+            return new Query(employees, from, to, durationMinutes, slots, dayStart, dayEnd);
+        }
+    }
+
+    public static class Result {
+        private final List<Slot> busy;
+        private final List<Slot> free;
+        private final List<String> unknown;
+
+        public Result(List<Slot> busy, List<Slot> free, List<String> unknown) {
+            this.busy = busy;
+            this.free = free;
+            this.unknown = unknown;
+        }
+
+        public List<Slot> getBusy() {
+            return busy;
+        }
+
+        public List<Slot> getFree() {
+            return free;
+        }
+
+        // Empleados de la consulta que el servidor central no conoce
+        public List<String> getUnknown() {
+            return unknown;
+        }
+
+        public String encode() {
+            StringBuilder sb = new StringBuilder();
+            for (Slot slot : busy) {
+                sb.append("BUSY=").append(slot).append("\n");
+            }
+            for (Slot slot : free) {
+                sb.append("FREE=").append(slot).append("\n");
+            }
+            if (!unknown.isEmpty()) {
+                sb.append("UNKNOWN=").append(String.join(",", unknown)).append("\n");
+            }
+            return sb.toString();
+        }
+
+        public static Result decode(String text) {
+            List<Slot> busy = new ArrayList<>();
+            List<Slot> free = new ArrayList<>();
+            List<String> unknown = new ArrayList<>();
+            for (String line : text.split("\n")) {
+                if (line.startsWith("BUSY=")) {
+                    busy.add(Slot.parse(line.substring(5)));
+                } else if (line.startsWith("FREE=")) {
+                    free.add(Slot.parse(line.substring(5)));
+                } else if (line.startsWith("UNKNOWN=")) {
+                    unknown.addAll(Arrays.asList(line.substring(8).split(",")));
+                }
+            }
+            return new Result(busy, free, unknown);
+        }
+    }
+
+    // Une los calendarios en intervalos ocupados disjuntos dentro de [from, to). Basta con ordenar
+    // por separado los inicios y los fines (como segundos, sin comparar LocalDateTime) y recorrerlos
+    // a la vez contando las reuniones abiertas: un tramo ocupado empieza cuando la cuenta pasa de 0
+    // a 1 y termina cuando vuelve a 0. Con 500 empleados y un mes son unas decenas de miles de
+    // reuniones, y dos Arrays.sort de long las ordenan en pocos milisegundos.
+    public static List<Slot> mergeBusy(List<List<Meeting>> calendars, LocalDateTime from, LocalDateTime to) {
+        int total = 0;
+        for (List<Meeting> calendar : calendars) {
+            total += calendar.size();
+        }
+        long lower = seconds(from);
+        long upper = seconds(to);
+        long[] starts = new long[total];
+        long[] ends = new long[total];
+        int count = 0;
+        for (List<Meeting> calendar : calendars) {
+            for (Meeting meeting : calendar) {
+                long start = Math.max(lower, seconds(meeting.getStartTime()));
+                long end = Math.min(upper, meeting.getEndTime() != null ? seconds(meeting.getEndTime()) : start);
+                // Sin duración no ocupa tiempo
+                if (start < end) {
+                    starts[count] = start;
+                    ends[count] = end;
+                    count++;
+                }
+            }
+        }
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+
+        List<Slot> busy = new ArrayList<>();
+        int open = 0;
+        long busyStart = 0;
+        int nextStart = 0;
+        for (int nextEnd = 0; nextEnd < count; ) {
+            // Un inicio a la misma hora que un fin se cuenta antes: los tramos contiguos se unen
+            if (nextStart < count && starts[nextStart] <= ends[nextEnd]) {
+                if (open++ == 0) {
+                    busyStart = starts[nextStart];
+                }
+                nextStart++;
+            } else {
+                if (--open == 0) {
+                    busy.add(new Slot(dateTime(busyStart), dateTime(ends[nextEnd])));
+                }
+                nextEnd++;
+            }
+        }
+        return busy;
+    }
+
+    private static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    // Los primeros huecos entre los intervalos ocupados (disjuntos y ordenados) que duran al menos
+    // lo pedido, recortados al horario diario de la consulta si lo tiene
+    public static List<Slot> freeSlots(List<Slot> busy, Query query) {
+        List<Slot> free = new ArrayList<>();
+        Duration minimum = Duration.ofMinutes(query.durationMinutes);
+        LocalDateTime cursor = query.from;
+        for (int i = 0; i <= busy.size() && free.size() < query.slots; i++) {
+            LocalDateTime gapEnd = i < busy.size() ? busy.get(i).getStart() : query.to;
+            if (cursor.isBefore(gapEnd)) {
+                addGap(free, cursor, gapEnd, minimum, query);
+            }
+            if (i < busy.size() && busy.get(i).getEnd().isAfter(cursor)) {
+                cursor = busy.get(i).getEnd();
+            }
+        }
+        return free;
+    }
+
+    private static void addGap(List<Slot> free, LocalDateTime start, LocalDateTime end, Duration minimum, Query query) {
+        if (query.dayStart == null) {
+            addIfLongEnough(free, start, end, minimum, query.slots);
+            return;
+        }
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()) && free.size() < query.slots;
+                day = day.plusDays(1)) {
+            LocalDateTime open = day.atTime(query.dayStart);
+            LocalDateTime close = day.atTime(query.dayEnd);
+            addIfLongEnough(free, open.isAfter(start) ? open : start, close.isBefore(end) ? close : end, minimum,
+                    query.slots);
+        }
+    }
+
+    private static void addIfLongEnough(List<Slot> free, LocalDateTime start, LocalDateTime end, Duration minimum,
+                                        int limit) {
+        if (free.size() < limit && Duration.between(start, end).compareTo(minimum) >= 0) {
+            free.add(new Slot(start, end));
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package model;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import util.HybridClock;
 
+// La versión (HybridClock) decide qué cambio es el más reciente; LAST_MODIFIED es su parte física,
+// para mostrarla y para los lectores del formato anterior. Cada setter da una versión nueva.
 public class Meeting {
     private String uuid;
     private String topic;
@@ -14,11 +16,11 @@ public class Meeting {
     private String location;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+    private long version;
+    // Se calcula a partir de version la primera vez que se pide
     private LocalDateTime lastModified;
     private boolean deleted = false;
     
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-    
     public Meeting(String topic, List<String> invitedEmployees, String organizer, 
                    String location, LocalDateTime startTime, LocalDateTime endTime) {
         this.uuid = UUID.randomUUID().toString();
@@ -28,13 +30,14 @@ public class Meeting {
         this.location = location;
         this.startTime = startTime;
         this.endTime = endTime;
-        this.lastModified = LocalDateTime.now();
+        this.version = HybridClock.now();
         this.deleted = false;
     }
     
     // Constructor with UUID for existing meetings
-    private Meeting(String uuid, String topic, List<String> invitedEmployees, String organizer, 
-                   String location, LocalDateTime startTime, LocalDateTime endTime, LocalDateTime lastModified, boolean deleted) {
+    Meeting(String uuid, String topic, List<String> invitedEmployees, String organizer, 
+                   String location, LocalDateTime startTime, LocalDateTime endTime, long version,
+                   LocalDateTime lastModified, boolean deleted) {
         this.uuid = uuid;
         this.topic = topic;
         this.invitedEmployees = new ArrayList<>(invitedEmployees);
@@ -42,10 +45,17 @@ public class Meeting {
         this.location = location;
         this.startTime = startTime;
         this.endTime = endTime;
+        this.version = version;
         this.lastModified = lastModified;
         this.deleted = deleted;
     }
     
+    // Copia independiente: modificarla no altera la original (p. ej. la que guarda una caché)
+    public Meeting copy() {
+        return new Meeting(uuid, topic, invitedEmployees, organizer, location, startTime, endTime, version, lastModified,
+                deleted);
+    }
+    
     // Getters
     public String getUuid() {
         return uuid;
@@ -76,48 +86,72 @@ public class Meeting {
     }
     
     public LocalDateTime getLastModified() {
+        if (lastModified == null && version != 0) {
+            lastModified = HybridClock.toDateTime(version);
+        }
         return lastModified;
     }
     
+    // 0 si la reunión no tiene fecha de modificación (formato muy antiguo)
+    public long getVersion() {
+        return version;
+    }
+    
     public boolean isDeleted() {
         return deleted;
     }
     
+    // Sin copia, para que MeetingCodec no cree una lista por cada mensaje
+    List<String> invitedEmployeesView() {
+        return invitedEmployees;
+    }
+    
     // Setters
     public void setTopic(String topic) {
         this.topic = topic;
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public void setInvitedEmployees(List<String> invitedEmployees) {
         this.invitedEmployees = new ArrayList<>(invitedEmployees);
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public void setOrganizer(String organizer) {
         this.organizer = organizer;
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public void setLocation(String location) {
         this.location = location;
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
+    // Fecha de modificación del formato anterior: la versión es su equivalente sin contador
     public void setLastModified(LocalDateTime lastModified) {
+        this.version = HybridClock.fromDateTime(lastModified);
         this.lastModified = lastModified;
     }
     
+    public void setVersion(long version) {
+        this.version = version;
+        this.lastModified = null;
+    }
+    
+    private void touch() {
+        setVersion(HybridClock.now());
+    }
+    
     // Método para marcar una reunión como eliminada
     public void markAsDeleted() {
         this.deleted = true;
@@ -131,84 +165,20 @@ public class Meeting {
     // Other utility functions
     public void addInvitedEmployee(String employee) {
         this.invitedEmployees.add(employee);
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public void removeInvitedEmployee(String employee) {
         this.invitedEmployees.remove(employee);
-        this.lastModified = LocalDateTime.now();
+        touch();
     }
     
     public String toStringFormat() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("UUID=").append(uuid).append("\n");
-        sb.append("TOPIC=").append(topic).append("\n");
-        sb.append("ORGANIZER=").append(organizer).append("\n");
-        sb.append("LOCATION=").append(location).append("\n");
-        sb.append("START=").append(startTime.format(formatter)).append("\n");
-        sb.append("END=").append(endTime.format(formatter)).append("\n");
-        sb.append("LAST_MODIFIED=").append(lastModified.format(formatter)).append("\n");
-        sb.append("DELETED=").append(deleted).append("\n");
-        sb.append("INVITED=");
-        for (int i = 0; i < invitedEmployees.size(); i++) {
-            sb.append(invitedEmployees.get(i));
-            if (i < invitedEmployees.size() - 1) {
-                sb.append(",");
-            }
-        }
-        return sb.toString();
+        return MeetingCodec.encode(this);
     }
     
     public static Meeting fromStringFormat(String meetingString) {
-        String[] lines = meetingString.split("\n");
-        String uuid = "";
-        String topic = "";
-        String organizer = "";
-        String location = "";
-        LocalDateTime startTime = null;
-        LocalDateTime endTime = null;
-        LocalDateTime lastModified = null;
-        String invitedStr = "";
-        boolean deleted = false;
-        
-        for (String line : lines) {
-            if (line.startsWith("UUID=")) {
-                uuid = line.substring(5);
-            } else if (line.startsWith("TOPIC=")) {
-                topic = line.substring(6);
-            } else if (line.startsWith("ORGANIZER=")) {
-                organizer = line.substring(10);
-            } else if (line.startsWith("LOCATION=")) {
-                location = line.substring(9);
-            } else if (line.startsWith("START=")) {
-                startTime = LocalDateTime.parse(line.substring(6), formatter);
-            } else if (line.startsWith("END=")) {
-                endTime = LocalDateTime.parse(line.substring(4), formatter);
-            } else if (line.startsWith("LAST_MODIFIED=")) {
-                lastModified = LocalDateTime.parse(line.substring(14), formatter);
-            } else if (line.startsWith("DELETED=")) {
-                deleted = Boolean.parseBoolean(line.substring(8));
-            } else if (line.startsWith("INVITED=")) {
-                invitedStr = line.substring(8);
-            }
-        }
-        
-        String[] invitedArray = invitedStr.split(",");
-        List<String> invitedEmployees = new ArrayList<>();
-        for (String invited : invitedArray) {
-            if (!invited.trim().isEmpty()) {
-                invitedEmployees.add(invited.trim());
-            }
-        }
-        
-        // Handle old format meetings without UUID
-        if (uuid.isEmpty()) {
-            Meeting meeting = new Meeting(topic, invitedEmployees, organizer, location, startTime, endTime);
-            meeting.setLastModified(lastModified);
-            return meeting;
-        } else {
-            return new Meeting(uuid, topic, invitedEmployees, organizer, location, startTime, endTime, lastModified, deleted);
-        }
+        return MeetingCodec.decode(meetingString).toMeeting();
     }
     
     @Override
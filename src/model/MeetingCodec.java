@@ -0,0 +1,235 @@
+package model;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Codificación del formato de texto KEY=valor de las reuniones (el binario está en BinaryMeetingCodec).
+// decode() recorre el mensaje una sola vez con indexOf, sin split ni expresiones regulares, y solo
+// crea los substrings de los valores; encode() produce exactamente lo mismo que Meeting.toStringFormat.
+// Los parches llevan PATCH=<versión base>, solo las líneas de los campos que cambian e
+// INVITED_ADDED=/INVITED_REMOVED= en lugar de INVITED=. VERSION= es la versión HybridClock.
+public final class MeetingCodec {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private MeetingCodec() {
+    }
+
+    public static MeetingEnvelope decode(String text) {
+        MeetingEnvelope envelope = new MeetingEnvelope(text);
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            decodeLine(envelope, text, lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+        }
+        return envelope;
+    }
+
+    private static void decodeLine(MeetingEnvelope envelope, String text, int start, int end) {
+        // Mismo criterio que el formato original: la clave es el prefijo de la línea y,
+        // si una clave se repite, gana la última
+        if (text.startsWith("UUID=", start)) {
+            envelope.uuid = text.substring(start + 5, end);
+        } else if (text.startsWith("TOPIC=", start)) {
+            envelope.topic = text.substring(start + 6, end);
+        } else if (text.startsWith("ORGANIZER=", start)) {
+            envelope.organizer = text.substring(start + 10, end);
+        } else if (text.startsWith("LOCATION=", start)) {
+            envelope.location = text.substring(start + 9, end);
+        } else if (text.startsWith("START=", start)) {
+            envelope.start = text.substring(start + 6, end);
+        } else if (text.startsWith("END=", start)) {
+            envelope.end = text.substring(start + 4, end);
+        } else if (text.startsWith("LAST_MODIFIED=", start)) {
+            envelope.lastModified = text.substring(start + 14, end);
+        } else if (text.startsWith("DELETED=", start)) {
+            envelope.deleted = text.regionMatches(true, start + 8, "true", 0, 4) && end - start - 8 == 4;
+        } else if (text.startsWith("INVITED=", start)) {
+            envelope.invited = decodeInvited(text, start + 8, end);
+        } else if (text.startsWith("TOMBSTONE=true", start)) {
+            envelope.tombstone = true;
+        } else if (text.startsWith("VERSION=", start)) {
+            envelope.version = parseLong(text, start + 8, end);
+        } else if (text.startsWith("PATCH=", start)) {
+            envelope.baseVersion = parseLong(text, start + 6, end);
+        } else if (text.startsWith("INVITED_ADDED=", start)) {
+            envelope.invitedAdded = decodeInvited(text, start + 14, end);
+        } else if (text.startsWith("INVITED_REMOVED=", start)) {
+            envelope.invitedRemoved = decodeInvited(text, start + 16, end);
+        } else if (text.startsWith("TRACE=", start)) {
+            envelope.trace = Trace.decode(text.substring(start + 6, end));
+        }
+    }
+
+    // Sin substring: se llama en cada mensaje. Un valor que no es un número se trata como ausente.
+    private static long parseLong(String text, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9' || value > (Long.MAX_VALUE - 9) / 10) {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Nombres separados por comas, sin espacios alrededor y sin entradas vacías
+    private static List<String> decodeInvited(String text, int start, int end) {
+        List<String> invited = new ArrayList<>();
+        int nameStart = start;
+        while (nameStart <= end) {
+            int comma = text.indexOf(',', nameStart);
+            int nameEnd = comma < 0 || comma > end ? end : comma;
+            int from = nameStart;
+            int to = nameEnd;
+            while (from < to && text.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && text.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (to > from) {
+                invited.add(text.substring(from, to));
+            }
+            nameStart = nameEnd + 1;
+        }
+        return invited;
+    }
+
+    public static String encode(Meeting meeting) {
+        return encode(meeting.getUuid(), meeting.getTopic(), meeting.getOrganizer(), meeting.getLocation(),
+                meeting.getStartTime().format(formatter), meeting.getEndTime().format(formatter),
+                meeting.getLastModified().format(formatter), meeting.getVersion(), meeting.isDeleted(),
+                meeting.invitedEmployeesView());
+    }
+
+    // Para mensajes que llegaron en binario y hay que reenviar o guardar como texto.
+    // La traza, si la hay, va en una línea TRACE= al final que los servidores antiguos ignoran.
+    public static String encode(MeetingEnvelope envelope) {
+        if (envelope.isPatch()) {
+            return encodePatch(envelope);
+        }
+        String text = encode(envelope.getUuid(), envelope.getTopic(), envelope.getOrganizer(), envelope.getLocation(),
+                envelope.getStartText(), envelope.getEndText(), envelope.getLastModifiedText(),
+                envelope.getVersion(), envelope.isDeleted(), envelope.getInvited());
+        Trace trace = envelope.getTrace();
+        return trace != null ? text + "\nTRACE=" + trace.encode() : text;
+    }
+
+    private static String encodePatch(MeetingEnvelope patch) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("UUID=").append(patch.getUuid()).append('\n');
+        sb.append("ORGANIZER=").append(patch.getOrganizer()).append('\n');
+        sb.append("PATCH=").append(patch.getBaseVersion()).append('\n');
+        sb.append("LAST_MODIFIED=").append(patch.getLastModifiedText()).append('\n');
+        sb.append("VERSION=").append(patch.getVersion());
+        appendIfPresent(sb, "TOPIC=", patch.getTopic());
+        appendIfPresent(sb, "LOCATION=", patch.getLocation());
+        appendIfPresent(sb, "START=", patch.getStartText());
+        appendIfPresent(sb, "END=", patch.getEndText());
+        if (!patch.getInvitedAdded().isEmpty()) {
+            sb.append("\nINVITED_ADDED=");
+            appendInvited(sb, patch.getInvitedAdded());
+        }
+        if (!patch.getInvitedRemoved().isEmpty()) {
+            sb.append("\nINVITED_REMOVED=");
+            appendInvited(sb, patch.getInvitedRemoved());
+        }
+        Trace trace = patch.getTrace();
+        if (trace != null) {
+            sb.append("\nTRACE=").append(trace.encode());
+        }
+        return sb.toString();
+    }
+
+    private static void appendIfPresent(StringBuilder sb, String key, String value) {
+        if (value != null) {
+            sb.append('\n').append(key).append(value);
+        }
+    }
+
+    private static String encode(String uuid, String topic, String organizer, String location, String start,
+                                 String end, String lastModified, long version, boolean deleted,
+                                 Collection<String> invited) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("UUID=").append(uuid).append('\n');
+        sb.append("TOPIC=").append(topic).append('\n');
+        sb.append("ORGANIZER=").append(organizer).append('\n');
+        sb.append("LOCATION=").append(location).append('\n');
+        sb.append("START=").append(start).append('\n');
+        sb.append("END=").append(end).append('\n');
+        sb.append("LAST_MODIFIED=").append(lastModified).append('\n');
+        if (version != 0) {
+            // Los lectores anteriores ignoran la línea y siguen comparando LAST_MODIFIED
+            sb.append("VERSION=").append(version).append('\n');
+        }
+        sb.append("DELETED=").append(deleted).append('\n');
+        sb.append("INVITED=");
+        appendInvited(sb, invited);
+        return sb.toString();
+    }
+
+    // Sustituye la línea INVITED= del mensaje (o la añade si no la tiene) sin tocar el resto
+    static String replaceInvited(String text, Collection<String> invited) {
+        StringBuilder value = new StringBuilder(64);
+        appendInvited(value, invited);
+        return replaceLine(text, "INVITED=", value);
+    }
+
+    // Lo mismo con la línea TRACE=; sin traza, la quita
+    static String replaceTrace(String text, Trace trace) {
+        return replaceLine(text, "TRACE=", trace != null ? trace.encode() : null);
+    }
+
+    private static String replaceLine(String text, String key, CharSequence value) {
+        StringBuilder sb = new StringBuilder(text.length() + 64);
+        boolean replaced = false;
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            if (text.startsWith(key, lineStart)) {
+                if (value == null) {
+                    lineStart = lineEnd + 1;
+                    continue;
+                }
+                sb.append(key).append(value);
+                replaced = true;
+            } else {
+                sb.append(text, lineStart, lineEnd);
+            }
+            if (lineEnd < length) {
+                sb.append('\n');
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (!replaced && value != null) {
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
+                sb.append('\n');
+            }
+            sb.append(key).append(value);
+        }
+        return sb.toString();
+    }
+
+    private static void appendInvited(StringBuilder sb, Collection<String> invited) {
+        boolean first = true;
+        for (String employee : invited) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(employee);
+            first = false;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import util.HybridClock;
+
+// Mensaje de reunión ya parseado por MeetingCodec o BinaryMeetingCodec. Si llegó como texto
+// conserva el texto original para reenviarlo tal cual; si llegó en binario, el texto solo se
+// genera cuando alguien lo pide. Las fechas se guardan en la forma en que llegaron y la otra
+// se calcula solo si hace falta.
+// Así el servidor central, el mediador y los observadores leen el mismo objeto en vez de
+// volver a recorrer el mensaje cada uno.
+// La versión (VERSION=, ver util.HybridClock) es la que decide qué cambio es más reciente; los
+// mensajes del formato anterior solo traen LAST_MODIFIED y su versión se deduce de esa fecha.
+// Un parche (PATCH=<versión base>) lleva solo los campos que cambian respecto a esa versión y los
+// invitados añadidos y quitados; los campos que no cambian quedan a null.
+public class MeetingEnvelope {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private String text;
+    String uuid;
+    String topic;
+    String organizer;
+    String location;
+    String start;
+    String end;
+    String lastModified;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    LocalDateTime lastModifiedTime;
+    // 0 si el mensaje no trae VERSION=
+    long version;
+    boolean deleted;
+    boolean tombstone;
+    List<String> invited = Collections.emptyList();
+    Trace trace;
+    // Solo en los parches: versión sobre la que se hizo el cambio (0 si no es un parche)
+    long baseVersion;
+    List<String> invitedAdded = Collections.emptyList();
+    List<String> invitedRemoved = Collections.emptyList();
+
+    MeetingEnvelope(String text) {
+        this.text = text;
+    }
+
+    public static MeetingEnvelope of(Meeting meeting) {
+        MeetingEnvelope envelope = new MeetingEnvelope(null);
+        envelope.uuid = meeting.getUuid();
+        envelope.topic = meeting.getTopic();
+        envelope.organizer = meeting.getOrganizer();
+        envelope.location = meeting.getLocation();
+        envelope.startTime = meeting.getStartTime();
+        envelope.endTime = meeting.getEndTime();
+        envelope.version = meeting.getVersion();
+        envelope.lastModifiedTime = meeting.getLastModified();
+        envelope.deleted = meeting.isDeleted();
+        envelope.invited = Collections.unmodifiableList(meeting.getInvitedEmployees());
+        return envelope;
+    }
+
+    // Parche con lo que cambia de original a updated, o null si original no tiene versión
+    public static MeetingEnvelope patch(Meeting original, Meeting updated) {
+        if (original.getVersion() == 0 || updated.getUuid() == null) {
+            return null;
+        }
+        MeetingEnvelope patch = new MeetingEnvelope(null);
+        patch.uuid = updated.getUuid();
+        patch.organizer = updated.getOrganizer();
+        patch.baseVersion = original.getVersion();
+        patch.version = updated.getVersion();
+        patch.lastModifiedTime = updated.getLastModified();
+        if (!Objects.equals(original.getTopic(), updated.getTopic())) {
+            patch.topic = updated.getTopic();
+        }
+        if (!Objects.equals(original.getLocation(), updated.getLocation())) {
+            patch.location = updated.getLocation();
+        }
+        if (!Objects.equals(original.getStartTime(), updated.getStartTime())) {
+            patch.startTime = updated.getStartTime();
+        }
+        if (!Objects.equals(original.getEndTime(), updated.getEndTime())) {
+            patch.endTime = updated.getEndTime();
+        }
+        patch.invitedAdded = difference(updated.getInvitedEmployees(), original.getInvitedEmployees());
+        patch.invitedRemoved = difference(original.getInvitedEmployees(), updated.getInvitedEmployees());
+        return patch;
+    }
+
+    private static List<String> difference(Collection<String> from, Collection<String> minus) {
+        List<String> result = new ArrayList<>();
+        for (String name : from) {
+            if (!minus.contains(name) && !result.contains(name)) {
+                result.add(name);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // Texto del mensaje, idéntico al recibido (o a Meeting.toStringFormat)
+    public String getText() {
+        if (text == null) {
+            text = MeetingCodec.encode(this);
+        }
+        return text;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getOrganizer() {
+        return organizer;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getStartText() {
+        if (start == null && startTime != null) {
+            start = startTime.format(formatter);
+        }
+        return start;
+    }
+
+    public String getEndText() {
+        if (end == null && endTime != null) {
+            end = endTime.format(formatter);
+        }
+        return end;
+    }
+
+    public String getLastModifiedText() {
+        if (lastModified == null && lastModifiedTime != null) {
+            lastModified = lastModifiedTime.format(formatter);
+        }
+        return lastModified;
+    }
+
+    public LocalDateTime getStartTime() {
+        if (startTime == null && start != null) {
+            startTime = LocalDateTime.parse(start, formatter);
+        }
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        if (endTime == null && end != null) {
+            endTime = LocalDateTime.parse(end, formatter);
+        }
+        return endTime;
+    }
+
+    public LocalDateTime getLastModified() {
+        if (lastModifiedTime == null && lastModified != null) {
+            lastModifiedTime = LocalDateTime.parse(lastModified, formatter);
+        } else if (lastModifiedTime == null && version != 0) {
+            lastModifiedTime = HybridClock.toDateTime(version);
+        }
+        return lastModifiedTime;
+    }
+
+    // Con VERSION= no hace falta parsear LAST_MODIFIED
+    public long getVersion() {
+        if (version == 0) {
+            version = HybridClock.fromDateTime(getLastModified());
+        }
+        return version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public boolean isTombstone() {
+        return tombstone;
+    }
+
+    // Sin copiar: la lista no se modifica después de parsear
+    public List<String> getInvited() {
+        return invited;
+    }
+
+    public boolean isInvited(String employeeName) {
+        return invited.contains(employeeName);
+    }
+
+    public String getInvitedText() {
+        return String.join(",", invited);
+    }
+
+    public boolean isPatch() {
+        return baseVersion != 0;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public List<String> getInvitedAdded() {
+        return invitedAdded;
+    }
+
+    public List<String> getInvitedRemoved() {
+        return invitedRemoved;
+    }
+
+    // null si el mensaje no se está trazando
+    public Trace getTrace() {
+        return trace;
+    }
+
+    // Copia del mensaje con otra lista de invitados (por ejemplo, con los grupos expandidos)
+    public MeetingEnvelope withInvited(Collection<String> employees) {
+        if (text != null) {
+            return MeetingCodec.decode(MeetingCodec.replaceInvited(text, employees));
+        }
+        MeetingEnvelope copy = copy(null);
+        copy.invited = Collections.unmodifiableList(new ArrayList<>(employees));
+        return copy;
+    }
+
+    // Copia del parche con otros invitados añadidos y quitados (por ejemplo, con los grupos expandidos)
+    public MeetingEnvelope withInvitedChanges(Collection<String> added, Collection<String> removed) {
+        MeetingEnvelope copy = copy(null);
+        copy.invitedAdded = Collections.unmodifiableList(new ArrayList<>(added));
+        copy.invitedRemoved = Collections.unmodifiableList(new ArrayList<>(removed));
+        return copy;
+    }
+
+    // Copia del mensaje con otra traza; el texto, si lo había, lleva la nueva línea TRACE=
+    public MeetingEnvelope withTrace(Trace newTrace) {
+        MeetingEnvelope copy = copy(text != null ? MeetingCodec.replaceTrace(text, newTrace) : null);
+        copy.trace = newTrace;
+        return copy;
+    }
+
+    // Atajo para las etapas que añaden su salto a un mensaje trazado; sin traza devuelve el mismo
+    public MeetingEnvelope withHop(String stage, long micros) {
+        return trace != null ? withTrace(trace.withHop(stage, micros)) : this;
+    }
+
+    private MeetingEnvelope copy(String copyText) {
+        MeetingEnvelope copy = new MeetingEnvelope(copyText);
+        copy.uuid = uuid;
+        copy.topic = topic;
+        copy.organizer = organizer;
+        copy.location = location;
+        copy.start = start;
+        copy.end = end;
+        copy.lastModified = lastModified;
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        copy.lastModifiedTime = lastModifiedTime;
+        copy.version = version;
+        copy.deleted = deleted;
+        copy.tombstone = tombstone;
+        copy.invited = invited;
+        copy.trace = trace;
+        copy.baseVersion = baseVersion;
+        copy.invitedAdded = invitedAdded;
+        copy.invitedRemoved = invitedRemoved;
+        return copy;
+    }
+
+    // La versión completa que resulta de aplicar este parche a base
+    public Meeting applyTo(Meeting base) {
+        Meeting updated = base.copy();
+        if (topic != null) {
+            updated.setTopic(topic);
+        }
+        if (location != null) {
+            updated.setLocation(location);
+        }
+        if (getStartTime() != null) {
+            updated.setStartTime(getStartTime());
+        }
+        if (getEndTime() != null) {
+            updated.setEndTime(getEndTime());
+        }
+        if (!invitedAdded.isEmpty() || !invitedRemoved.isEmpty()) {
+            List<String> invitees = base.getInvitedEmployees();
+            invitees.removeAll(invitedRemoved);
+            for (String name : invitedAdded) {
+                if (!invitees.contains(name)) {
+                    invitees.add(name);
+                }
+            }
+            updated.setInvitedEmployees(invitees);
+        }
+        // Los setters dan una versión nueva: la que vale es la del parche
+        updated.setVersion(getVersion());
+        return updated;
+    }
+
+    // Un solo mensaje equivalente a entregar older y después newer, o null si no se pueden
+    // juntar (newer es un parche sobre una versión distinta de older). Sirve a las colas de
+    // salida, que solo guardan un mensaje pendiente por reunión.
+    public static MeetingEnvelope merge(MeetingEnvelope older, MeetingEnvelope newer) {
+        if (!newer.isPatch()) {
+            return newer;
+        }
+        if (newer.baseVersion != older.getVersion()) {
+            return null;
+        }
+        if (!older.isPatch()) {
+            return of(newer.applyTo(older.toMeeting())).withTrace(newer.trace);
+        }
+        MeetingEnvelope merged = newer.copy(null);
+        merged.baseVersion = older.baseVersion;
+        merged.topic = newer.topic != null ? newer.topic : older.topic;
+        merged.location = newer.location != null ? newer.location : older.location;
+        merged.startTime = newer.getStartTime() != null ? newer.getStartTime() : older.getStartTime();
+        merged.endTime = newer.getEndTime() != null ? newer.getEndTime() : older.getEndTime();
+        merged.start = null;
+        merged.end = null;
+        // Quien se añadió y luego se quitó (o al revés) queda solo con el último cambio
+        List<String> added = difference(older.invitedAdded, newer.invitedRemoved);
+        List<String> removed = difference(older.invitedRemoved, newer.invitedAdded);
+        merged.invitedAdded = union(added, newer.invitedAdded);
+        merged.invitedRemoved = union(removed, newer.invitedRemoved);
+        return merged;
+    }
+
+    private static List<String> union(List<String> first, List<String> second) {
+        List<String> result = new ArrayList<>(first);
+        for (String name : second) {
+            if (!result.contains(name)) {
+                result.add(name);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public Meeting toMeeting() {
+        if (isPatch()) {
+            throw new IllegalStateException("Meeting " + uuid + " is a patch; apply it to its base version");
+        }
+        List<String> invitedEmployees = new ArrayList<>(invited);
+        // Con VERSION= la fecha solo se calcula si alguien la pide; sin ella, se conserva la recibida
+        LocalDateTime modified = version != 0 ? lastModifiedTime : getLastModified();
+        long meetingVersion = getVersion();
+        // Reuniones del formato antiguo, sin UUID: reciben uno nuevo
+        if (uuid == null || uuid.isEmpty()) {
+            return new Meeting(UUID.randomUUID().toString(), orEmpty(topic), invitedEmployees, orEmpty(organizer),
+                    orEmpty(location), getStartTime(), getEndTime(), meetingVersion, modified, false);
+        }
+        return new Meeting(uuid, orEmpty(topic), invitedEmployees, orEmpty(organizer), orEmpty(location),
+                getStartTime(), getEndTime(), meetingVersion, modified, deleted);
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import util.IntervalTree;
+
+// Índice temporal de las reuniones vigentes de un calendario: qué hay entre dos horas, cuáles son
+// las próximas N y con qué se solapa una reunión, sin recorrer todas. Se mantiene al día reunión
+// a reunión a medida que se aplican las actualizaciones. Las eliminadas y las que no tienen fecha
+// de inicio no se indexan. Es seguro usarlo desde varios hilos.
+public class MeetingTimeIndex {
+    private final IntervalTree<LocalDateTime, Meeting> tree = new IntervalTree<>();
+
+    public synchronized void put(Meeting meeting) {
+        if (meeting.isDeleted() || meeting.getStartTime() == null) {
+            tree.remove(meeting.getUuid());
+            return;
+        }
+        LocalDateTime end = meeting.getEndTime() != null ? meeting.getEndTime() : meeting.getStartTime();
+        tree.put(meeting.getUuid(), meeting.getStartTime(), end, meeting);
+    }
+
+    public synchronized void remove(String uuid) {
+        tree.remove(uuid);
+    }
+
+    public synchronized Meeting get(String uuid) {
+        return tree.get(uuid);
+    }
+
+    public synchronized void clear() {
+        tree.clear();
+    }
+
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    // Reuniones que ocupan parte de [from, to), por hora de inicio
+    public synchronized List<Meeting> between(LocalDateTime from, LocalDateTime to) {
+        return tree.overlapping(from, to);
+    }
+
+    // Las próximas count reuniones que empiezan en from o después
+    public synchronized List<Meeting> next(LocalDateTime from, int count) {
+        return tree.startingFrom(from, count);
+    }
+
+    // Otras reuniones del calendario que se solapan con esta
+    public synchronized List<Meeting> conflictsWith(Meeting meeting) {
+        List<Meeting> conflicts = new ArrayList<>();
+        if (meeting.getStartTime() == null) {
+            return conflicts;
+        }
+        LocalDateTime end = meeting.getEndTime() != null ? meeting.getEndTime() : meeting.getStartTime();
+        for (Meeting other : tree.overlapping(meeting.getStartTime(), end)) {
+            if (!other.getUuid().equals(meeting.getUuid())) {
+                conflicts.add(other);
+            }
+        }
+        return conflicts;
+    }
+
+    // Todas, por hora de inicio
+    public synchronized List<Meeting> all() {
+        return tree.values();
+    }
+}
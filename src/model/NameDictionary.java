@@ -0,0 +1,53 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+// Diccionario de nombres de empleado compartido por los dos extremos del formato binario:
+// cada nombre se escribe como su posición en la lista ordenada en lugar de como texto.
+// El id permite comprobar en la negociación que ambos extremos tienen la misma lista.
+public class NameDictionary {
+    private final List<String> names;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final long id;
+
+    public NameDictionary(Collection<String> employeeNames) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(employeeNames)));
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < names.size(); i++) {
+            positions.put(names.get(i), i);
+            crc.update(names.get(i).getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        this.id = crc.getValue();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    // -1 si el nombre no está en el diccionario
+    public int indexOf(String name) {
+        Integer position = positions.get(name);
+        return position != null ? position : -1;
+    }
+
+    public String get(int index) {
+        return names.get(index);
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
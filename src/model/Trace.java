@@ -0,0 +1,91 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Contexto de traza que viaja con un mensaje de reunión: un identificador y la marca de tiempo
+// de cada etapa por la que ha pasado ("client.send", "central.receive", ...), en microsegundos
+// desde epoch. Es inmutable: cada etapa añade su salto sobre una copia, así que el mismo mensaje
+// puede repartirse a varios destinatarios sin que sus saltos se mezclen.
+// En el mensaje va como "id;etapa@micros;etapa@micros..." (línea TRACE= o cola del binario).
+public final class Trace {
+    private final String id;
+    private final String hops;
+
+    private Trace(String id, String hops) {
+        this.id = id;
+        this.hops = hops;
+    }
+
+    public static Trace start(String stage, long micros) {
+        String id = String.format("%016x", ThreadLocalRandom.current().nextLong());
+        return new Trace(id, stage + "@" + micros);
+    }
+
+    public Trace withHop(String stage, long micros) {
+        return new Trace(id, hops.isEmpty() ? stage + "@" + micros : hops + ";" + stage + "@" + micros);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<Hop> getHops() {
+        if (hops.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Hop> result = new ArrayList<>();
+        for (String hop : hops.split(";")) {
+            int at = hop.lastIndexOf('@');
+            if (at > 0) {
+                try {
+                    result.add(new Hop(hop.substring(0, at), Long.parseLong(hop.substring(at + 1))));
+                } catch (NumberFormatException e) {
+                    // Un salto mal formado no invalida el resto de la traza
+                }
+            }
+        }
+        return result;
+    }
+
+    public String encode() {
+        return hops.isEmpty() ? id : id + ";" + hops;
+    }
+
+    // null si el texto no tiene ni siquiera identificador
+    public static Trace decode(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        int separator = text.indexOf(';');
+        if (separator < 0) {
+            return new Trace(text, "");
+        }
+        return separator == 0 ? null : new Trace(text.substring(0, separator), text.substring(separator + 1));
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+
+    public static final class Hop {
+        private final String stage;
+        private final long micros;
+
+        Hop(String stage, long micros) {
+            this.stage = stage;
+            this.micros = micros;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public long getMicros() {
+            return micros;
+        }
+    }
+}
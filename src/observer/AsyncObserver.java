@@ -0,0 +1,171 @@
+package observer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import model.MeetingEnvelope;
+import util.Settings;
+
+// Decorador que saca a un observador del hilo de la conexión. Las notificaciones se reparten
+// en carriles por UUID, cada uno con su cola acotada y un único hilo, así que las versiones de
+// una misma reunión se entregan en el orden en que llegaron. Si una cola se llena, quien
+// notifica espera: un observador lento frena la recepción en lugar de acumular memoria.
+public class AsyncObserver implements Observer, Closeable {
+    private static final long POLL_MILLIS = 100;
+
+    private final Observer delegate;
+    private final DispatchPolicy policy;
+    private final int batchSize;
+    private final Lane[] lanes;
+    private final AtomicLong failures = new AtomicLong();
+    private volatile boolean closing = false;
+
+    public AsyncObserver(Observer delegate, DispatchPolicy policy, int laneCount, int queueCapacity, int batchSize) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.batchSize = Math.max(1, batchSize);
+        this.lanes = new Lane[Math.max(1, laneCount)];
+        String name = delegate.getClass().getSimpleName();
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(name + "-" + policy.name().toLowerCase() + "-" + i, Math.max(1, queueCapacity));
+            lanes[i].start();
+        }
+    }
+
+    // ASYNC: un carril por núcleo y entregas de una en una. BATCHED: un solo carril que agrupa.
+    public static Observer wrap(Observer observer, DispatchPolicy policy) {
+        int capacity = Settings.getInt("OBSERVER_QUEUE_CAPACITY", 1024);
+        switch (policy) {
+            case ASYNC:
+                return new AsyncObserver(observer, policy,
+                        Settings.getInt("OBSERVER_ASYNC_LANES", Runtime.getRuntime().availableProcessors()), capacity, 1);
+            case BATCHED:
+                return new AsyncObserver(observer, policy, 1, capacity, Settings.getInt("OBSERVER_BATCH_SIZE", 64));
+            default:
+                return observer;
+        }
+    }
+
+    public Observer getDelegate() {
+        return delegate;
+    }
+
+    public DispatchPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void update(MeetingEnvelope meetingUpdate) {
+        if (closing) {
+            // Después del cierre ya no hay hilos: se entrega en el del llamante para no perderla
+            delegate.update(meetingUpdate);
+            return;
+        }
+        Lane lane = lanes[laneFor(meetingUpdate.getUuid())];
+        try {
+            lane.queue.put(meetingUpdate);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delegate.update(meetingUpdate);
+        }
+    }
+
+    public int getQueuedCount() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.queue.size();
+        }
+        return total;
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    // Entrega lo que quede en las colas y espera a los hilos
+    @Override
+    public void close() {
+        closing = true;
+        for (Lane lane : lanes) {
+            try {
+                lane.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Lo que se encoló justo mientras el carril terminaba
+            MeetingEnvelope remaining;
+            while ((remaining = lane.queue.poll()) != null) {
+                lane.deliver(remaining);
+            }
+        }
+    }
+
+    private int laneFor(String uuid) {
+        if (uuid == null || lanes.length == 1) {
+            return 0;
+        }
+        int hash = uuid.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & 0x7FFFFFFF) % lanes.length;
+    }
+
+    private class Lane extends Thread {
+        private final BlockingQueue<MeetingEnvelope> queue;
+
+        Lane(String name, int capacity) {
+            super(name);
+            setDaemon(true); // el cierre ordenado lo hace close() desde el shutdown hook
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            List<MeetingEnvelope> batch = new ArrayList<>(batchSize);
+            while (true) {
+                MeetingEnvelope first;
+                try {
+                    first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (first == null) {
+                    if (closing && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (batchSize == 1) {
+                    deliver(first);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+                batch.clear();
+            }
+        }
+
+        private void deliver(MeetingEnvelope meetingUpdate) {
+            try {
+                delegate.update(meetingUpdate);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                System.err.println("Observer " + getName() + " failed on meeting " + meetingUpdate.getUuid() + ": " + e);
+            }
+        }
+
+        private void deliver(List<MeetingEnvelope> meetingUpdates) {
+            try {
+                delegate.updateBatch(meetingUpdates);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                System.err.println("Observer " + getName() + " failed on a batch of " + meetingUpdates.size() + ": " + e);
+            }
+        }
+    }
+}
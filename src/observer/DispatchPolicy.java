@@ -0,0 +1,23 @@
+package observer;
+
+// Cómo recibe un observador las notificaciones del Subject:
+//   SYNC    en el hilo de la conexión, antes del ACK (un error llega al emisor como NACK)
+//   ASYNC   en carriles con cola acotada, uno por grupo de reuniones; el orden por UUID se mantiene
+//   BATCHED en un único hilo que entrega lotes con updateBatch()
+public enum DispatchPolicy {
+    SYNC,
+    ASYNC,
+    BATCHED;
+
+    public static DispatchPolicy parse(String value, DispatchPolicy defaultPolicy) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultPolicy;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown dispatch policy '" + value + "', using " + defaultPolicy);
+            return defaultPolicy;
+        }
+    }
+}
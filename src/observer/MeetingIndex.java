@@ -0,0 +1,141 @@
+package observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.Meeting;
+import model.MeetingEnvelope;
+import model.MeetingTimeIndex;
+
+// Reuniones vigentes de un empleado indexadas por UUID. La resolución de conflictos
+// (last-write-wins) se hace aquí en O(1) comparando versiones HybridClock, sin leer el archivo.
+// El MeetingTimeIndex se actualiza en el mismo paso, así que las consultas por fecha ven
+// siempre lo mismo que el índice por UUID.
+public class MeetingIndex {
+    public enum Change {
+        APPENDED,  // Reunión nueva
+        REPLACED,  // Versión más reciente de una reunión existente
+        REMOVED,   // Eliminada del calendario del empleado
+        KEPT,      // Se conserva la versión actual
+        IGNORED    // Eliminación de una reunión que el empleado no tenía, o parche sobre una versión que no tiene
+    }
+
+    private final Map<String, Meeting> meetings = new ConcurrentHashMap<>();
+    private final MeetingTimeIndex timeIndex = new MeetingTimeIndex();
+
+    public Meeting get(String uuid) {
+        return meetings.get(uuid);
+    }
+
+    public int size() {
+        return meetings.size();
+    }
+
+    public List<Meeting> getMeetings() {
+        return new ArrayList<>(meetings.values());
+    }
+
+    public MeetingTimeIndex getTimeIndex() {
+        return timeIndex;
+    }
+
+    // Solo para reconstruir el índice al arrancar, sin resolver conflictos
+    void restore(Meeting meeting) {
+        meetings.put(meeting.getUuid(), meeting);
+        timeIndex.put(meeting);
+    }
+
+    void restoreRemoval(String uuid) {
+        meetings.remove(uuid);
+        timeIndex.remove(uuid);
+    }
+
+    // Reconstruye el índice con los registros de un archivo de reuniones. Están en orden de
+    // escritura: el último de cada UUID es el vigente.
+    public void replay(List<MeetingLog.Record> records) {
+        for (MeetingLog.Record record : records) {
+            if (record.tombstone) {
+                restoreRemoval(record.uuid);
+                continue;
+            }
+            restore(Meeting.fromStringFormat(record.text));
+        }
+    }
+
+    // Aplica una actualización recibida con las mismas reglas que seguía el archivo de texto.
+    // compute() es atómico por UUID: dos versiones de la misma reunión no se pisan entre sí.
+    public Change apply(Meeting update, String employeeName) {
+        Change[] result = new Change[1];
+        meetings.compute(update.getUuid(), (uuid, existing) -> {
+            result[0] = decide(existing, update, employeeName);
+            // Dentro de compute(): dos versiones de la misma reunión no llegan al índice temporal desordenadas
+            switch (result[0]) {
+                case APPENDED:
+                case REPLACED:
+                    timeIndex.put(update);
+                    return update;
+                case REMOVED:
+                    timeIndex.remove(uuid);
+                    return null;
+                default:
+                    return existing;
+            }
+        });
+        return result[0];
+    }
+
+    // Un parche solo se aplica sobre la versión en la que se basa. Si el empleado ya tiene esa
+    // versión del parche o una posterior, conserva la suya; si no tiene la base (le faltó algún
+    // mensaje), el parche se descarta y la reunión se queda como estaba.
+    public Change applyPatch(MeetingEnvelope patch) {
+        Change[] result = new Change[1];
+        meetings.compute(patch.getUuid(), (uuid, existing) -> {
+            if (existing == null || existing.getVersion() == 0) {
+                result[0] = Change.IGNORED;
+                return existing;
+            }
+            if (existing.getVersion() >= patch.getVersion()) {
+                result[0] = Change.KEPT;
+                return existing;
+            }
+            if (existing.getVersion() != patch.getBaseVersion()) {
+                result[0] = Change.IGNORED;
+                return existing;
+            }
+            Meeting updated = patch.applyTo(existing);
+            timeIndex.put(updated);
+            result[0] = Change.REPLACED;
+            return updated;
+        });
+        return result[0];
+    }
+
+    private static Change decide(Meeting existing, Meeting update, String employeeName) {
+        boolean isOrganizer = employeeName.equals(update.getOrganizer());
+
+        if (existing == null) {
+            // Solo agregamos la reunión si no está eliminada o si el empleado es el organizador
+            return !update.isDeleted() || isOrganizer ? Change.APPENDED : Change.IGNORED;
+        }
+
+        long existingVersion = existing.getVersion();
+        long newVersion = update.getVersion();
+        if (existingVersion == 0 || newVersion == 0) {
+            return update.isDeleted() && !isOrganizer ? Change.REMOVED : Change.REPLACED;
+        }
+
+        if (newVersion < existingVersion) {
+            return Change.KEPT;
+        }
+        if (!update.isDeleted()) {
+            // Las versiones llevan el nodo que las generó: la misma versión es el mismo cambio
+            // entregado otra vez, y se conserva la copia que ya está aplicada
+            return newVersion == existingVersion ? Change.KEPT : Change.REPLACED;
+        }
+        // Eliminación: solo se quita si el empleado está en la lista del mensaje y no es el organizador;
+        // el organizador conserva la reunión hasta que llegue el mensaje siguiente
+        boolean isInvited = update.getInvitedEmployees().contains(employeeName);
+        return isInvited && !isOrganizer ? Change.REMOVED : Change.KEPT;
+    }
+}
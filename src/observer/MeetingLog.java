@@ -0,0 +1,152 @@
+package observer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Archivo de reuniones de un empleado. En modo log cada actualización se añade al final como un
+// registro (separado por una línea vacía, igual que el formato original) y las eliminaciones se
+// añaden como tombstones; rewrite() deja el archivo con una sola versión por reunión.
+// Solo lo usa el hilo de escritura de MeetingStore, así que no necesita sincronización.
+public class MeetingLog {
+    public static final String TOMBSTONE_MARKER = "TOMBSTONE=true";
+    private static final String RECORD_SEPARATOR = "\n\n";
+    // Bytes del final del archivo que se usan como huella para validar un snapshot
+    private static final int FINGERPRINT_BYTES = 64;
+
+    private final File file;
+    private int totalRecords = 0;
+
+    public MeetingLog(String path) {
+        this.file = new File(path);
+    }
+
+    public static class Record {
+        public final String uuid;
+        public final boolean tombstone;
+        public final String text;
+
+        Record(String uuid, boolean tombstone, String text) {
+            this.uuid = uuid;
+            this.tombstone = tombstone;
+            this.text = text;
+        }
+    }
+
+    // Tombstone mínimo: lo justo para que el cliente y la recuperación sepan que el UUID ya no existe
+    public static String tombstoneFor(String uuid) {
+        return TOMBSTONE_MARKER + "\nUUID=" + uuid + "\nDELETED=true";
+    }
+
+    public void createIfMissing() throws IOException {
+        if (!file.exists()) {
+            file.createNewFile();
+        }
+    }
+
+    public long length() {
+        return file.length();
+    }
+
+    public int getTotalRecords() {
+        return totalRecords;
+    }
+
+    // Registros que ya había en el archivo según el snapshot, antes de leer solo la cola
+    public void restoreRecordCount(int records) {
+        this.totalRecords = records;
+    }
+
+    // Registros desde la posición indicada hasta el final, en el orden en que se escribieron
+    public List<Record> readFrom(long offset) throws IOException {
+        List<Record> records = new ArrayList<>();
+        long end = file.exists() ? file.length() : 0;
+        if (end > offset) {
+            String content = new String(readBytes(offset, end), StandardCharsets.UTF_8);
+            for (String text : content.split(RECORD_SEPARATOR)) {
+                String trimmed = text.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                String uuid = null;
+                boolean tombstone = false;
+                for (String line : trimmed.split("\n")) {
+                    if (line.startsWith("UUID=")) {
+                        uuid = line.substring(5);
+                    } else if (line.equals(TOMBSTONE_MARKER)) {
+                        tombstone = true;
+                    }
+                }
+                records.add(new Record(uuid, tombstone, trimmed));
+            }
+        }
+        totalRecords = offset == 0 ? records.size() : totalRecords + records.size();
+        return records;
+    }
+
+    // Todo el lote va en una sola escritura; con force se hace un único fsync al final
+    public void append(Collection<String> records, boolean force) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        for (String record : records) {
+            batch.append(stripTrailingNewline(record)).append(RECORD_SEPARATOR);
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            if (force) {
+                out.getChannel().force(false);
+            }
+        }
+        totalRecords += records.size();
+    }
+
+    // Sustituye el contenido completo de forma atómica (archivo temporal + rename).
+    // Con force el temporal se sincroniza antes del rename para no dejar un archivo vacío.
+    public void rewrite(Collection<String> records, boolean force) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            StringBuilder content = new StringBuilder();
+            for (String record : records) {
+                content.append(stripTrailingNewline(record)).append(RECORD_SEPARATOR);
+            }
+            out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+            if (force) {
+                out.getChannel().force(false);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        totalRecords = records.size();
+    }
+
+    // CRC32 de los últimos bytes antes de la posición indicada
+    public long fingerprint(long length) throws IOException {
+        CRC32 crc = new CRC32();
+        if (length > 0 && file.length() >= length) {
+            crc.update(readBytes(Math.max(0, length - FINGERPRINT_BYTES), length));
+        }
+        return crc.getValue();
+    }
+
+    private static String stripTrailingNewline(String record) {
+        return record.endsWith("\n") ? record.substring(0, record.length() - 1) : record;
+    }
+
+    private byte[] readBytes(long from, long to) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            byte[] bytes = new byte[(int) (to - from)];
+            in.seek(from);
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+}
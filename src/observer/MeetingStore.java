@@ -0,0 +1,374 @@
+package observer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import model.BinaryMeetingCodec;
+import model.Meeting;
+import model.MeetingEnvelope;
+import model.NameDictionary;
+import util.Metrics;
+import util.TraceLog;
+
+// Persistencia asíncrona del MeetingIndex. Los observadores solo marcan el UUID como pendiente;
+// un único hilo escribe el estado actual del índice en el archivo de reuniones:
+//  - modo "rewrite": reescribe el archivo completo una vez por lote de cambios
+//  - modo "log": añade las versiones nuevas y los tombstones, y compacta cuando sobran registros
+// Los cambios que llegan dentro de una ventana corta se agrupan en una sola escritura y, según
+// la WriteDurability, como mucho un fsync por lote (group commit).
+// Cada cierto tiempo guarda un snapshot binario con las reuniones vigentes y la posición del
+// archivo que cubre, para que al reiniciar no haga falta volver a leer todo el archivo de texto.
+public class MeetingStore {
+    private static final int SNAPSHOT_MAGIC = 0x4D534E50; // "MSNP"
+    // Versión 2: reuniones en el formato binario de BinaryMeetingCodec (la 1 guardaba texto)
+    private static final int SNAPSHOT_VERSION = 2;
+    // A partir de este número de reuniones el snapshot se comprime
+    private static final int COMPRESS_MIN_MEETINGS = 64;
+    private static final String CLOSE_MARKER = "";
+    // Espera máxima de una actualización en modo UPDATE antes de dar el fsync por fallido
+    private static final long DURABLE_WAIT_SECONDS = 10;
+    private static final Metrics.Timer writeTime = Metrics.timer("meetings_file_write_seconds",
+            "Time to write a batch of changes to the meetings file, fsync included");
+
+    private final String employeeName;
+    private final MeetingIndex index;
+    private final MeetingLog log;
+    private final File snapshotFile;
+    private final boolean logMode;
+    private final int compactMinRecords;
+    private final long snapshotIntervalMillis;
+    private final WriteDurability durability;
+    private final long batchWindowMillis;
+    private final BlockingQueue<PendingWrite> dirty = new LinkedBlockingQueue<>();
+    private final AtomicLong writtenBatches = new AtomicLong();
+    private final AtomicLong writtenUpdates = new AtomicLong();
+    private final Thread writer;
+    private long lastSnapshotAt = System.currentTimeMillis();
+    private boolean changedSinceSnapshot = false;
+
+    public MeetingStore(String employeeName, String meetingsFilePath, MeetingIndex index, boolean logMode,
+                        int compactMinRecords, int snapshotIntervalSeconds,
+                        WriteDurability durability, long batchWindowMillis) {
+        this.employeeName = employeeName;
+        this.index = index;
+        this.log = new MeetingLog(meetingsFilePath);
+        this.snapshotFile = new File(meetingsFilePath.replaceFirst("\\.txt$", "") + ".snapshot");
+        this.logMode = logMode;
+        this.compactMinRecords = compactMinRecords;
+        this.snapshotIntervalMillis = TimeUnit.SECONDS.toMillis(snapshotIntervalSeconds);
+        this.durability = durability;
+        this.batchWindowMillis = batchWindowMillis;
+        this.writer = new Thread(this::writeLoop, "meeting-store-" + employeeName);
+        this.writer.setDaemon(true);
+    }
+
+    // Reconstruye el índice: snapshot más la cola del archivo si es posible, el archivo completo si no
+    public void recover() {
+        long startedAt = System.nanoTime();
+        String source;
+        try {
+            log.createIfMissing();
+            source = loadSnapshot() ? "snapshot" : loadFile();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error recovering meetings for " + employeeName + ": " + e.getMessage());
+            source = "empty";
+        }
+        System.out.println("Meeting index for " + employeeName + " rebuilt from " + source + ": "
+                + index.size() + " meetings in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms");
+    }
+
+    public void start() {
+        writer.start();
+    }
+
+    // Con WriteDurability.UPDATE no vuelve hasta que el lote que contiene el cambio está en disco;
+    // si no se pudo escribir lanza una excepción para que el emisor reciba un NACK
+    // traceId: si la actualización se está trazando, se registra cuándo llegó al archivo
+    public void markDirty(String uuid, String traceId) {
+        if (durability != WriteDurability.UPDATE) {
+            dirty.add(new PendingWrite(uuid, traceId, null));
+            return;
+        }
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        dirty.add(new PendingWrite(uuid, traceId, durable));
+        try {
+            durable.get(DURABLE_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Meeting " + uuid + " could not be persisted: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Meeting " + uuid + " was not persisted within " + DURABLE_WAIT_SECONDS + " s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while persisting meeting " + uuid);
+        }
+    }
+
+    public int getPendingWrites() {
+        return dirty.size();
+    }
+
+    public long getWrittenBatches() {
+        return writtenBatches.get();
+    }
+
+    public long getWrittenUpdates() {
+        return writtenUpdates.get();
+    }
+
+    // Escribe lo pendiente y un snapshot final; se llama al apagar el servidor
+    public void close() {
+        dirty.add(new PendingWrite(CLOSE_MARKER, null, null));
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        boolean closing = false;
+        while (!closing) {
+            List<PendingWrite> pending = new ArrayList<>();
+            try {
+                // Con SNAPSHOT_INTERVAL 0 solo se guarda el snapshot al apagar
+                long waitMillis = snapshotIntervalMillis > 0 ? snapshotIntervalMillis : TimeUnit.MINUTES.toMillis(1);
+                PendingWrite first = dirty.poll(waitMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    pending.add(first);
+                    collectWindow(pending);
+                }
+            } catch (InterruptedException e) {
+                closing = true;
+            }
+
+            Set<String> batch = new LinkedHashSet<>();
+            for (PendingWrite write : pending) {
+                if (write.uuid.equals(CLOSE_MARKER)) {
+                    closing = true;
+                } else {
+                    batch.add(write.uuid);
+                }
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    long startedAt = System.nanoTime();
+                    persist(batch);
+                    writeTime.recordSince(startedAt);
+                    writtenBatches.incrementAndGet();
+                    writtenUpdates.addAndGet(pending.size());
+                    changedSinceSnapshot = true;
+                    traceWritten(pending);
+                }
+                complete(pending, null);
+                boolean snapshotDue = snapshotIntervalMillis > 0
+                        && System.currentTimeMillis() - lastSnapshotAt >= snapshotIntervalMillis;
+                if (changedSinceSnapshot && (snapshotDue || closing)) {
+                    writeSnapshot();
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing meetings file for " + employeeName + ": " + e.getMessage());
+                complete(pending, e);
+            }
+        }
+    }
+
+    // Tras el primer cambio espera la ventana configurada para que entren en el mismo lote los
+    // que llegan justo detrás; con ventana 0 solo se toma lo que ya estaba en la cola
+    private void collectWindow(List<PendingWrite> pending) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        while (true) {
+            dirty.drainTo(pending);
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || pending.get(pending.size() - 1).uuid.equals(CLOSE_MARKER)) {
+                return;
+            }
+            PendingWrite next = dirty.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            pending.add(next);
+        }
+    }
+
+    private void traceWritten(List<PendingWrite> pending) {
+        long now = TraceLog.nowMicros();
+        for (PendingWrite write : pending) {
+            if (write.traceId != null) {
+                TraceLog.record(write.traceId, "store.write", now, employeeName, "batch=" + pending.size());
+            }
+        }
+    }
+
+    private static void complete(List<PendingWrite> pending, IOException error) {
+        for (PendingWrite write : pending) {
+            if (write.durable == null) {
+                continue;
+            }
+            if (error == null) {
+                write.durable.complete(null);
+            } else {
+                write.durable.completeExceptionally(error);
+            }
+        }
+    }
+
+    private void persist(Set<String> uuids) throws IOException {
+        if (!logMode) {
+            // El snapshot deja de ser válido en cuanto se reescribe el archivo
+            invalidateSnapshot();
+            log.rewrite(currentRecords(), forceWrites());
+            return;
+        }
+
+        // Se escribe el estado actual de cada reunión, no cada versión intermedia: si una
+        // reunión cambió varias veces dentro del lote, solo se añade la última
+        List<String> records = new ArrayList<>();
+        for (String uuid : uuids) {
+            Meeting meeting = index.get(uuid);
+            records.add(meeting != null ? meeting.toStringFormat() : MeetingLog.tombstoneFor(uuid));
+        }
+        log.append(records, forceWrites());
+
+        if (log.getTotalRecords() >= compactMinRecords && log.getTotalRecords() > index.size() * 2) {
+            int before = log.getTotalRecords();
+            invalidateSnapshot();
+            log.rewrite(currentRecords(), forceWrites());
+            System.out.println("Compacted meetings file for " + employeeName + ": " + before + " -> " + log.getTotalRecords() + " records");
+            writeSnapshot();
+        }
+    }
+
+    private boolean forceWrites() {
+        return durability != WriteDurability.NONE;
+    }
+
+    private List<String> currentRecords() {
+        List<String> records = new ArrayList<>();
+        for (Meeting meeting : index.getMeetings()) {
+            records.add(meeting.toStringFormat());
+        }
+        return records;
+    }
+
+    private void writeSnapshot() throws IOException {
+        // El índice puede ir por delante del archivo (cambios aún en la cola); lo que se añada
+        // después de coveredLength se vuelve a aplicar encima al recuperar, así que no importa
+        long coveredLength = log.length();
+        List<MeetingEnvelope> meetings = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Meeting meeting : index.getMeetings()) {
+            MeetingEnvelope envelope = MeetingEnvelope.of(meeting);
+            meetings.add(envelope);
+            if (meeting.getOrganizer() != null) {
+                names.add(meeting.getOrganizer());
+            }
+            names.addAll(envelope.getInvited());
+        }
+        // El snapshot lleva su propio diccionario: no depende de que employees.properties siga igual
+        BinaryMeetingCodec codec = new BinaryMeetingCodec(new NameDictionary(names));
+        byte[] batch = codec.encodeBatch(meetings, meetings.size() >= COMPRESS_MIN_MEETINGS);
+
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(coveredLength);
+            out.writeLong(log.fingerprint(coveredLength));
+            out.writeInt(log.getTotalRecords());
+            List<String> dictionary = codec.getDictionary().getNames();
+            out.writeInt(dictionary.size());
+            for (String name : dictionary) {
+                out.writeUTF(name);
+            }
+            out.writeInt(batch.length);
+            out.write(batch);
+        }
+        Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastSnapshotAt = System.currentTimeMillis();
+        changedSinceSnapshot = false;
+    }
+
+    private void invalidateSnapshot() throws IOException {
+        Files.deleteIfExists(snapshotFile.toPath());
+    }
+
+    private boolean loadSnapshot() throws IOException {
+        if (!snapshotFile.exists()) {
+            return false;
+        }
+        List<Meeting> meetings = new ArrayList<>();
+        long coveredLength;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                return false;
+            }
+            coveredLength = in.readLong();
+            long fingerprint = in.readLong();
+            long fileLength = log.length();
+            // En modo rewrite el archivo debe ser exactamente el que cubre el snapshot;
+            // en modo log puede haber registros añadidos después, que se aplican encima
+            boolean matches = logMode ? fileLength >= coveredLength : fileLength == coveredLength;
+            if (!matches || log.fingerprint(coveredLength) != fingerprint) {
+                System.out.println("Snapshot for " + employeeName + " is stale, reading meetings file");
+                return false;
+            }
+            log.restoreRecordCount(in.readInt());
+            List<String> dictionary = new ArrayList<>();
+            int names = in.readInt();
+            for (int i = 0; i < names; i++) {
+                dictionary.add(in.readUTF());
+            }
+            byte[] batch = new byte[in.readInt()];
+            in.readFully(batch);
+            BinaryMeetingCodec codec = new BinaryMeetingCodec(new NameDictionary(dictionary));
+            for (MeetingEnvelope envelope : codec.decodeBatch(batch, Integer.MAX_VALUE)) {
+                meetings.add(envelope.toMeeting());
+            }
+        }
+        for (Meeting meeting : meetings) {
+            index.restore(meeting);
+        }
+        if (logMode) {
+            index.replay(log.readFrom(coveredLength));
+        }
+        return true;
+    }
+
+    private String loadFile() throws IOException {
+        index.replay(log.readFrom(0));
+        return "meetings file";
+    }
+
+    private static class PendingWrite {
+        final String uuid;
+        final String traceId;
+        // Solo en modo UPDATE: se completa cuando el lote que incluye el cambio está en disco
+        final CompletableFuture<Void> durable;
+
+        PendingWrite(String uuid, String traceId, CompletableFuture<Void> durable) {
+            this.uuid = uuid;
+            this.traceId = traceId;
+            this.durable = durable;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package observer;
+
+// El empleado no tiene la versión sobre la que se calculó un parche (le faltó algún mensaje):
+// aplicarlo no es posible y descartarlo en silencio dejaría su calendario desfasado
+public class MissingBaseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MissingBaseException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,21 @@
 package observer;
 
+import java.util.List;
+import model.MeetingCodec;
+import model.MeetingEnvelope;
+
 public interface Observer {
-    void update(String meetingUpdate);
-}
\ No newline at end of file
+    // El mensaje llega ya parseado una sola vez por el servidor
+    void update(MeetingEnvelope meetingUpdate);
+
+    default void update(String meetingUpdate) {
+        update(MeetingCodec.decode(meetingUpdate));
+    }
+
+    // Con DispatchPolicy.BATCHED llegan varias actualizaciones juntas, en orden de llegada
+    default void updateBatch(List<MeetingEnvelope> meetingUpdates) {
+        for (MeetingEnvelope meetingUpdate : meetingUpdates) {
+            update(meetingUpdate);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package observer;
 
+import model.MeetingEnvelope;
+
 public interface Subject {
     void registerObserver(Observer observer);
     void removeObserver(Observer observer);
-    void notifyObservers(String message);
-}
\ No newline at end of file
+    void notifyObservers(MeetingEnvelope message);
+
+    // El observador se envuelve según la política; con SYNC se registra tal cual
+    default void registerObserver(Observer observer, DispatchPolicy policy) {
+        registerObserver(AsyncObserver.wrap(observer, policy));
+    }
+}
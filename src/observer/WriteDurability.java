@@ -0,0 +1,24 @@
+package observer;
+
+// Cuándo se fuerza a disco (fsync) el archivo de reuniones que escribe MeetingStore:
+//   NONE   nunca; el sistema operativo decide (un corte de luz puede perder los últimos lotes)
+//   BATCH  una vez por lote escrito, sin hacer esperar a nadie
+//   UPDATE igual que BATCH, pero cada actualización espera a que su lote esté en disco antes
+//          del ACK; las que llegan a la vez comparten el mismo fsync (group commit)
+public enum WriteDurability {
+    NONE,
+    BATCH,
+    UPDATE;
+
+    public static WriteDurability parse(String value, WriteDurability defaultDurability) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultDurability;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown write durability '" + value + "', using " + defaultDurability);
+            return defaultDurability;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package protocol;
+
+import java.io.IOException;
+
+// El otro extremo no respondió a tiempo; la conexión puede seguir sana (solo va lento)
+public class AckTimeoutException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public AckTimeoutException(String message) {
+        super(message);
+    }
+}
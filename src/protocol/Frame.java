@@ -0,0 +1,76 @@
+package protocol;
+
+import java.nio.charset.StandardCharsets;
+
+// Unidad del protocolo entre cliente, servidor central y servidores de empleados:
+// cabecera fija (magic, versión, tipo, flags, id de mensaje, longitud) seguida del payload
+public class Frame {
+    // Bits del byte de flags; solo se usan si el otro extremo aceptó el formato binario en el HELLO
+    public static final byte FLAG_BINARY = 0x01;
+    public static final byte FLAG_COMPRESSED = 0x02;
+
+    private final byte version;
+    private final FrameType type;
+    private final byte flags;
+    private final long messageId;
+    private final byte[] payload;
+
+    public Frame(FrameType type, long messageId, byte[] payload) {
+        this(FrameCodec.CURRENT_VERSION, type, (byte) 0, messageId, payload);
+    }
+
+    public Frame(FrameType type, byte flags, long messageId, byte[] payload) {
+        this(FrameCodec.CURRENT_VERSION, type, flags, messageId, payload);
+    }
+
+    public Frame(byte version, FrameType type, byte flags, long messageId, byte[] payload) {
+        this.version = version;
+        this.type = type;
+        this.flags = flags;
+        this.messageId = messageId;
+        this.payload = payload;
+    }
+
+    public static Frame text(FrameType type, long messageId, String text) {
+        return new Frame(type, messageId, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public byte getVersion() {
+        return version;
+    }
+
+    public FrameType getType() {
+        return type;
+    }
+
+    public byte getFlags() {
+        return flags;
+    }
+
+    public boolean hasFlag(byte flag) {
+        return (flags & flag) != 0;
+    }
+
+    public long getMessageId() {
+        return messageId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public String getPayloadAsString() {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "Frame{" +
+               "version=" + version +
+               ", type=" + type +
+               ", flags=" + flags +
+               ", messageId=" + messageId +
+               ", length=" + payload.length +
+               '}';
+    }
+}
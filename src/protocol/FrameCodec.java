@@ -0,0 +1,109 @@
+package protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Formato binario de un frame (big-endian):
+//   magic(1) | versión(1) | tipo(1) | flags(1) | id de mensaje(8) | longitud(4) | payload
+// El byte magic no puede ser el inicio de un mensaje de texto (que empieza por "UUID="),
+// lo que permite a los servidores seguir aceptando el formato antiguo en la misma conexión.
+public class FrameCodec {
+    public static final byte MAGIC = (byte) 0xCA;
+    public static final byte CURRENT_VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+
+    public static void write(DataOutputStream out, Frame frame) throws IOException {
+        out.writeByte(MAGIC);
+        out.writeByte(frame.getVersion());
+        out.writeByte(frame.getType().getCode());
+        out.writeByte(frame.getFlags());
+        out.writeLong(frame.getMessageId());
+        out.writeInt(frame.getPayload().length);
+        out.write(frame.getPayload());
+    }
+
+    public static ByteBuffer encode(Frame frame) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + frame.getPayload().length);
+        buffer.put(MAGIC);
+        buffer.put(frame.getVersion());
+        buffer.put(frame.getType().getCode());
+        buffer.put(frame.getFlags());
+        buffer.putLong(frame.getMessageId());
+        buffer.putInt(frame.getPayload().length);
+        buffer.put(frame.getPayload());
+        buffer.flip();
+        return buffer;
+    }
+
+    // Devuelve null si el otro extremo cerró la conexión entre dos frames
+    public static Frame read(DataInputStream in) throws IOException {
+        int magic = in.read();
+        if (magic < 0) {
+            return null;
+        }
+        if ((byte) magic != MAGIC) {
+            throw new IOException("Invalid frame magic: " + magic);
+        }
+        byte version = in.readByte();
+        byte typeCode = in.readByte();
+        byte flags = in.readByte();
+        long messageId = in.readLong();
+        int length = in.readInt();
+        checkHeader(version, length);
+
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+        } catch (EOFException e) {
+            throw new IOException("Connection closed in the middle of a frame");
+        }
+        return new Frame(version, typeFor(typeCode), flags, messageId, payload);
+    }
+
+    // Decodifica un frame desde un buffer en modo lectura; devuelve null si aún no está completo
+    // y deja la posición del buffer sin cambios
+    public static Frame decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        if (buffer.get(start) != MAGIC) {
+            throw new IOException("Invalid frame magic: " + buffer.get(start));
+        }
+        byte version = buffer.get(start + 1);
+        byte typeCode = buffer.get(start + 2);
+        byte flags = buffer.get(start + 3);
+        long messageId = buffer.getLong(start + 4);
+        int length = buffer.getInt(start + 12);
+        checkHeader(version, length);
+        if (buffer.remaining() < HEADER_SIZE + length) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        buffer.position(start + HEADER_SIZE);
+        buffer.get(payload);
+        return new Frame(version, typeFor(typeCode), flags, messageId, payload);
+    }
+
+    private static void checkHeader(byte version, int length) throws IOException {
+        if (version < 1 || version > CURRENT_VERSION) {
+            throw new IOException("Unsupported protocol version: " + version);
+        }
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+    }
+
+    private static FrameType typeFor(byte code) throws IOException {
+        FrameType type = FrameType.fromCode(code);
+        if (type == null) {
+            throw new IOException("Unknown frame type: " + code);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,53 @@
+package protocol;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import util.Metrics;
+
+// Lado servidor del protocolo de frames: responde PING con PONG y HELLO con el formato elegido,
+// y pasa el resto de frames al manejador; si el manejador falla se responde NACK con el motivo
+public class FrameResponder {
+    private static final byte[] EMPTY = new byte[0];
+    private static final Metrics.Counter bytesRead = Metrics.counter("meetings_bytes_read_total", "Bytes received from clients");
+
+    public interface MessageHandler {
+        // Devuelve el payload del ACK (null para un ACK vacío)
+        byte[] handle(Frame request) throws Exception;
+    }
+
+    // Indica si la conexión habla el protocolo de frames o el formato de texto antiguo
+    public static boolean startsWithFrame(BufferedInputStream in) throws IOException {
+        in.mark(1);
+        int first = in.read();
+        in.reset();
+        return first >= 0 && (byte) first == FrameCodec.MAGIC;
+    }
+
+    // Atiende frames en orden hasta que el otro extremo cierre la conexión
+    public static void serve(DataInputStream in, DataOutputStream out, MessageHandler handler) throws IOException {
+        Frame request;
+        while ((request = FrameCodec.read(in)) != null) {
+            bytesRead.add(FrameCodec.HEADER_SIZE + request.getPayload().length);
+            FrameCodec.write(out, respond(request, handler));
+            out.flush();
+        }
+    }
+
+    public static Frame respond(Frame request, MessageHandler handler) {
+        if (request.getType() == FrameType.PING) {
+            return new Frame(FrameType.PONG, request.getMessageId(), EMPTY);
+        }
+        if (request.getType() == FrameType.HELLO) {
+            return new Frame(FrameType.ACK, request.getMessageId(), WireFormat.answerHello(request));
+        }
+        try {
+            byte[] response = handler.handle(request);
+            return new Frame(FrameType.ACK, request.getMessageId(), response != null ? response : EMPTY);
+        } catch (Exception e) {
+            String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return Frame.text(FrameType.NACK, request.getMessageId(), reason);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package protocol;
+
+public enum FrameType {
+    MEETING(1),
+    ACK(2),
+    NACK(3),
+    PING(4),
+    PONG(5),
+    HELLO(6), // Negociación del formato del payload (texto o binario)
+    FREE_BUSY(7); // Consulta de disponibilidad al servidor central (model.FreeBusy)
+
+    private final byte code;
+
+    FrameType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static FrameType fromCode(byte code) {
+        for (FrameType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
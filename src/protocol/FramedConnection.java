@@ -0,0 +1,192 @@
+package protocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import model.MeetingEnvelope;
+
+// Conexión de cliente que envía frames en pipeline: se pueden escribir muchas peticiones
+// sin esperar respuesta, y un hilo lector completa cada una cuando llega su ACK/NACK/PONG
+public class FramedConnection implements Closeable {
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final AtomicLong nextMessageId = new AtomicLong(1);
+    private final Map<Long, CompletableFuture<Frame>> pending = new ConcurrentHashMap<>();
+    private volatile boolean open = true;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private volatile boolean binary = false;
+    private volatile boolean patches = false;
+
+    private FramedConnection(Socket socket, String name) throws IOException {
+        this.socket = socket;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+        Thread reader = new Thread(this::readResponses, name + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public static FramedConnection connect(String host, int port, int connectTimeoutMillis) throws IOException {
+        return connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+    }
+
+    public static FramedConnection connect(InetSocketAddress address, int connectTimeoutMillis) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setKeepAlive(true);
+            socket.setTcpNoDelay(true);
+            socket.connect(address, connectTimeoutMillis);
+            return new FramedConnection(socket, "conn-" + address.getHostString() + ":" + address.getPort());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Conecta y negocia el formato y los parches con HELLO. Si el servidor es anterior a la
+    // negociación y cerró la conexión al no reconocer el frame, se vuelve a conectar y se sigue
+    // en texto y sin parches.
+    public static FramedConnection connectNegotiated(InetSocketAddress address, int connectTimeoutMillis) throws IOException {
+        FramedConnection connection = connect(address, connectTimeoutMillis);
+        try {
+            Frame answer = awaitAck(connection.request(FrameType.HELLO, WireFormat.helloPayload()), connectTimeoutMillis);
+            connection.binary = WireFormat.isBinaryEnabled() && WireFormat.acceptsBinary(answer);
+            connection.patches = WireFormat.acceptsPatches(answer);
+        } catch (IOException e) {
+            if (!connection.isOpen()) {
+                connection = connect(address, connectTimeoutMillis);
+            }
+        }
+        return connection;
+    }
+
+    public CompletableFuture<Frame> request(FrameType type, byte[] payload) {
+        return send(new Frame(type, nextMessageId.getAndIncrement(), payload));
+    }
+
+    // Envía la reunión en el formato negociado para esta conexión
+    public CompletableFuture<Frame> requestMeeting(MeetingEnvelope meeting) {
+        return send(WireFormat.meetingFrame(nextMessageId.getAndIncrement(), meeting, binary));
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    // El servidor entiende reuniones enviadas como parche (PATCH=)
+    public boolean supportsPatches() {
+        return patches;
+    }
+
+    private CompletableFuture<Frame> send(Frame frame) {
+        long messageId = frame.getMessageId();
+        CompletableFuture<Frame> response = new CompletableFuture<>();
+        pending.put(messageId, response);
+        // Si la petición termina sin respuesta (p. ej. awaitAck dejó de esperar), deja de estar pendiente;
+        // un ACK que llegue después ya no encuentra a quién completar y se ignora
+        response.whenComplete((answer, error) -> pending.remove(messageId, response));
+        if (!open) {
+            pending.remove(messageId);
+            response.completeExceptionally(new IOException("Connection closed"));
+            return response;
+        }
+        try {
+            synchronized (out) {
+                FrameCodec.write(out, frame);
+                out.flush();
+            }
+            lastUsed = System.currentTimeMillis();
+        } catch (IOException e) {
+            pending.remove(messageId);
+            response.completeExceptionally(e);
+            close();
+        }
+        return response;
+    }
+
+    // Espera la respuesta de una petición; un NACK (RejectedException) o un timeout
+    // (AckTimeoutException) se informan como IOException. Tras el timeout la petición se da por
+    // terminada: no queda pendiente en la conexión.
+    public static Frame awaitAck(CompletableFuture<Frame> response, long timeoutMillis) throws IOException {
+        Frame frame;
+        try {
+            frame = response.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            AckTimeoutException timeout = new AckTimeoutException("Timed out waiting for acknowledgement");
+            if (!response.completeExceptionally(timeout)) {
+                // La respuesta llegó justo después del timeout
+                return awaitAck(response, 0);
+            }
+            throw timeout;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for acknowledgement");
+        }
+        if (frame.getType() == FrameType.NACK) {
+            throw new RejectedException(frame.getPayloadAsString());
+        }
+        return frame;
+    }
+
+    public boolean isOpen() {
+        return open && !socket.isClosed();
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void readResponses() {
+        try {
+            Frame frame;
+            while ((frame = FrameCodec.read(in)) != null) {
+                CompletableFuture<Frame> response = pending.remove(frame.getMessageId());
+                if (response != null) {
+                    response.complete(frame);
+                }
+            }
+        } catch (IOException e) {
+            // La conexión se cerró o quedó inutilizable
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignorar
+        }
+        IOException closed = new IOException("Connection closed");
+        for (Long messageId : pending.keySet()) {
+            CompletableFuture<Frame> response = pending.remove(messageId);
+            if (response != null) {
+                response.completeExceptionally(closed);
+            }
+        }
+    }
+}
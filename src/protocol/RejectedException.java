@@ -0,0 +1,20 @@
+package protocol;
+
+import java.io.IOException;
+
+// El otro extremo recibió el mensaje pero respondió NACK; reintentar no tiene sentido
+public class RejectedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String reason;
+
+    public RejectedException(String reason) {
+        super("Rejected: " + reason);
+        this.reason = reason;
+    }
+
+    // El texto del NACK, sin el prefijo del mensaje
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,139 @@
+package protocol;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import model.BinaryMeetingCodec;
+import model.MeetingCodec;
+import model.MeetingEnvelope;
+import model.NameDictionary;
+import util.Metrics;
+import util.PropertiesUtil;
+import util.Settings;
+
+// Formato del payload de los frames MEETING. Al abrir una conexión el cliente envía un HELLO
+// con los formatos que entiende y el id de su diccionario de nombres; el servidor contesta en
+// el ACK cuál usar. El binario solo se usa si los dos extremos tienen el mismo diccionario
+// (employees.properties). Un servidor anterior a la negociación no conoce HELLO: en ese caso,
+// y con los clientes antiguos que no lo envían, todo sigue yendo en texto. Cada frame indica su
+// formato con los flags, así que el receptor no necesita recordar lo negociado.
+// El HELLO anuncia además FEATURES=patch: el cliente solo envía parches (cambios sobre una versión)
+// a un servidor que contestó PATCH=true. Los parches van siempre en texto; el formato binario no
+// tiene campos para ellos.
+public final class WireFormat {
+    public static final String TEXT = "text";
+    public static final String BINARY = "binary";
+    public static final String PATCH = "patch";
+    // Comienzo del NACK de un parche cuya versión base ya no es la actual: el cliente reenvía la reunión completa
+    public static final String STALE_PATCH = "Stale patch";
+    // Comienzo del NACK de un servidor de empleado que no tiene la versión base de un parche: el
+    // servidor central le reenvía la reunión completa
+    public static final String MISSING_BASE = "Missing base";
+
+    private static final BinaryMeetingCodec codec =
+            new BinaryMeetingCodec(new NameDictionary(PropertiesUtil.getEmployeeNames()));
+    // WIRE_FORMAT=text desactiva el binario en este extremo (no lo ofrece ni lo acepta)
+    private static final boolean binaryEnabled = !TEXT.equalsIgnoreCase(Settings.getString("WIRE_FORMAT", BINARY));
+    private static final int compressionThreshold = Settings.getInt("WIRE_COMPRESSION_MIN_BYTES", 1024);
+    private static final Metrics.Timer parseTime = Metrics.timer("meetings_parse_seconds", "Time to decode a meeting message");
+
+    private WireFormat() {
+    }
+
+    public static boolean isBinaryEnabled() {
+        return binaryEnabled;
+    }
+
+    public static byte[] helloPayload() {
+        String formats = binaryEnabled ? BINARY + "," + TEXT : TEXT;
+        String hello = "FORMATS=" + formats + "\nDICTIONARY=" + codec.getDictionary().getId()
+                + "\nFEATURES=" + PATCH;
+        return hello.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Respuesta del servidor: binario si lo ofrecen, está activado aquí y el diccionario coincide
+    public static byte[] answerHello(Frame hello) {
+        boolean offersBinary = false;
+        boolean sameDictionary = false;
+        boolean offersPatches = false;
+        for (String line : hello.getPayloadAsString().split("\n")) {
+            if (line.startsWith("FORMATS=")) {
+                for (String format : line.substring(8).split(",")) {
+                    offersBinary |= format.trim().equalsIgnoreCase(BINARY);
+                }
+            } else if (line.startsWith("DICTIONARY=")) {
+                sameDictionary = line.substring(11).trim().equals(String.valueOf(codec.getDictionary().getId()));
+            } else if (line.startsWith("FEATURES=")) {
+                for (String feature : line.substring(9).split(",")) {
+                    offersPatches |= feature.trim().equalsIgnoreCase(PATCH);
+                }
+            }
+        }
+        String format = binaryEnabled && offersBinary && sameDictionary ? BINARY : TEXT;
+        String answer = "FORMAT=" + format;
+        // Los clientes anteriores comparan la respuesta entera: la línea solo va si la pidieron
+        return (offersPatches ? answer + "\nPATCH=true" : answer).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static boolean acceptsBinary(Frame answer) {
+        return hasLine(answer, "FORMAT=" + BINARY);
+    }
+
+    public static boolean acceptsPatches(Frame answer) {
+        return hasLine(answer, "PATCH=true");
+    }
+
+    private static boolean hasLine(Frame answer, String expected) {
+        for (String line : answer.getPayloadAsString().split("\n")) {
+            if (line.trim().equalsIgnoreCase(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static Frame meetingFrame(long messageId, MeetingEnvelope meeting, boolean binary) {
+        if (!binary || meeting.isPatch()) {
+            return Frame.text(FrameType.MEETING, messageId, meeting.getText());
+        }
+        byte flags = Frame.FLAG_BINARY;
+        byte[] payload = codec.encode(meeting);
+        if (payload.length >= compressionThreshold) {
+            flags |= Frame.FLAG_COMPRESSED;
+            payload = BinaryMeetingCodec.compress(payload);
+        }
+        return new Frame(FrameType.MEETING, flags, messageId, payload);
+    }
+
+    public static MeetingEnvelope decodeMeeting(Frame frame) throws IOException {
+        long startedAt = System.nanoTime();
+        MeetingEnvelope meeting = decodePayload(frame);
+        parseTime.recordSince(startedAt);
+        return meeting;
+    }
+
+    // Mensajes del formato de texto antiguo, que no llegan en un frame
+    public static MeetingEnvelope decodeText(String message) {
+        long startedAt = System.nanoTime();
+        MeetingEnvelope meeting = MeetingCodec.decode(message);
+        parseTime.recordSince(startedAt);
+        return meeting;
+    }
+
+    private static MeetingEnvelope decodePayload(Frame frame) throws IOException {
+        if (!frame.hasFlag(Frame.FLAG_BINARY)) {
+            return MeetingCodec.decode(frame.getPayloadAsString());
+        }
+        if (!binaryEnabled) {
+            throw new IOException("Binary payloads are disabled on this server");
+        }
+        try {
+            byte[] payload = frame.getPayload();
+            if (frame.hasFlag(Frame.FLAG_COMPRESSED)) {
+                payload = BinaryMeetingCodec.decompress(payload, FrameCodec.MAX_PAYLOAD_SIZE);
+            }
+            return codec.decode(payload);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed binary meeting: " + e.getMessage());
+        }
+    }
+}
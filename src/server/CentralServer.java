@@ -1,28 +1,89 @@
 package server;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import mediator.CentralServerMediator;
+import mediator.DeliveryReport;
 import mediator.Mediator;
+import model.FreeBusy;
+import model.MeetingEnvelope;
+import model.Trace;
+import protocol.Frame;
+import protocol.FrameResponder;
+import protocol.FrameType;
+import protocol.WireFormat;
+import util.Metrics;
+import util.Settings;
+import util.TraceLog;
 
 public class CentralServer {
     private Mediator mediator;
     private static final int PORT = 9090;
+    private static final Metrics.Counter acceptedConnections =
+            Metrics.counter("meetings_connections_accepted_total", "Accepted client connections");
+    private static final Metrics.Counter bytesRead = Metrics.counter("meetings_bytes_read_total", "Bytes received from clients");
+    private final String mode;
+    private ConnectionStats stats;
     
     public CentralServer() {
+        this(Settings.getString("CENTRAL_SERVER_MODE", "blocking"));
+    }
+    
+    public CentralServer(String mode) {
         this.mediator = new CentralServerMediator();
+        this.mode = mode;
     }
     
     public void start() {
+        String executorMode = mode.equalsIgnoreCase("nio") ? "nio" : ConnectionExecutors.configuredMode();
+        stats = new ConnectionStats("central", executorMode);
+        if (mediator instanceof CentralServerMediator) {
+            CentralServerMediator centralMediator = (CentralServerMediator) mediator;
+            stats.addDetail("queued", centralMediator::getTotalQueueDepth);
+            stats.addDetail("coalesced", centralMediator::getCoalescedCount);
+            stats.addDetail("queues", centralMediator::getQueueDepths);
+            stats.addDetail("outboxBytes", centralMediator::getOutboxPendingBytes);
+        }
+        stats.startReporting(Settings.getInt("STATS_INTERVAL_SECONDS", 0));
+        Metrics.expose("central", Settings.getInt("METRICS_PORT", PORT + 1000));
+        TraceLog.open("central");
+        
+        if (mode.equalsIgnoreCase("nio")) {
+            startNio();
+        } else {
+            startBlocking();
+        }
+    }
+    
+    private void startNio() {
+        int ioThreads = Settings.getInt("CENTRAL_IO_THREADS", Math.min(4, Runtime.getRuntime().availableProcessors()));
+        int dispatchThreads = Settings.getInt("CENTRAL_DISPATCH_THREADS", 8);
+        int maxInFlight = Settings.getInt("CENTRAL_MAX_IN_FLIGHT", 256);
+        new NioCentralServer(PORT, ioThreads, dispatchThreads, maxInFlight, this::handleFrame).start();
+    }
+    
+    private void startBlocking() {
+        String executorMode = ConnectionExecutors.configuredMode();
+        ExecutorService connectionExecutor = ConnectionExecutors.create(executorMode, "central-conn");
+        
         try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            System.out.println("Central Server started on port " + PORT);
+            System.out.println("Central Server started on port " + PORT + " (executor: " + executorMode + ")");
             
             while (true) {
                 Socket clientSocket = serverSocket.accept();
-                new Thread(() -> handleClientConnection(clientSocket)).start();
+                acceptedConnections.increment();
+                connectionExecutor.execute(() -> handleClientConnection(clientSocket));
             }
         } catch (IOException e) {
             System.err.println("Central Server error: " + e.getMessage());
@@ -31,41 +92,83 @@ public class CentralServer {
     
     private void handleClientConnection(Socket clientSocket) {
         try {
-            BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+            BufferedInputStream input = new BufferedInputStream(clientSocket.getInputStream());
             
-            StringBuilder messageBuilder = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) {
-                messageBuilder.append(line).append("\n");
+            if (FrameResponder.startsWithFrame(input)) {
+                // Protocolo de frames: varios mensajes en pipeline por conexión, cada uno con su ACK
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+                FrameResponder.serve(new DataInputStream(input), out, this::handleFrame);
+            } else {
+                // Formato antiguo: un único mensaje de texto hasta que el cliente cierra
+                BufferedReader in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                
+                StringBuilder messageBuilder = new StringBuilder();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    messageBuilder.append(line).append("\n");
+                }
+                
+                // Bytes en UTF-8, como los cuenta el modo nio: length() son caracteres
+                String message = messageBuilder.toString();
+                bytesRead.add(message.getBytes(StandardCharsets.UTF_8).length);
+                processMessage(WireFormat.decodeText(message));
             }
             
-            String message = messageBuilder.toString();
-            // Extraer el remitente del mensaje
-            String sender = extractSender(message);
-            
-            // Reenviar el mensaje a todos los empleados relevantes
-            mediator.sendMessage(message, sender);
-            
             clientSocket.close();
         } catch (IOException e) {
             System.err.println("Error handling client connection: " + e.getMessage());
         }
     }
     
-    private String extractSender(String message) {
-        // Extraer el nombre del remitente del mensaje
-        String[] lines = message.split("\n");
-        for (String line : lines) {
-            if (line.startsWith("ORGANIZER=")) {
-                return line.substring("ORGANIZER=".length());
-            }
+    private byte[] handleFrame(Frame frame) throws IOException {
+        if (frame.getType() == FrameType.FREE_BUSY && mediator instanceof CentralServerMediator) {
+            // La respuesta va en el ACK; una consulta mal formada se responde con NACK
+            FreeBusy.Query query = FreeBusy.Query.decode(frame.getPayloadAsString());
+            return ((CentralServerMediator) mediator).freeBusy(query).encode().getBytes(StandardCharsets.UTF_8);
+        }
+        if (frame.getType() != FrameType.MEETING) {
+            throw new IOException("Unsupported frame type " + frame.getType());
+        }
+        // El ACK se envía cuando el reparto termina e incluye el resultado por destinatario
+        DeliveryReport report;
+        try {
+            report = processMessage(WireFormat.decodeMeeting(frame)).join();
+        } catch (CompletionException e) {
+            // El mediador no pudo repartir el mensaje (p. ej. una fecha mal formada): NACK con el motivo
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IOException("Meeting could not be routed: "
+                    + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+        }
+        if (report.getRejection() != null) {
+            throw new IOException(report.getRejection());
+        }
+        return report.toSummary().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    // El mensaje llega parseado una sola vez (texto o binario); el mediador recibe los campos ya extraídos
+    private CompletableFuture<DeliveryReport> processMessage(MeetingEnvelope envelope) {
+        long startedAt = System.nanoTime();
+        String sender = envelope.getOrganizer() != null ? envelope.getOrganizer() : "Unknown";
+        Trace trace = envelope.getTrace();
+        if (trace != null) {
+            long now = TraceLog.nowMicros();
+            envelope = envelope.withHop("central.receive", now);
+            TraceLog.record(trace.getId(), "central.receive", now, null, envelope.getUuid());
         }
-        // Si no se encuentra el organizador, devolver un valor por defecto
-        return "Unknown";
+        
+        // Reenviar el mensaje a todos los empleados relevantes
+        return mediator.sendMessage(envelope, sender)
+                .whenComplete((report, error) -> {
+                    stats.recordRequest(startedAt);
+                    if (trace != null) {
+                        TraceLog.record(trace.getId(), "central.reply", TraceLog.nowMicros(), null);
+                    }
+                });
     }
     
     public static void main(String[] args) {
-        CentralServer server = new CentralServer();
+        // Modo opcional como argumento: blocking (por defecto) o nio
+        CentralServer server = args.length >= 1 ? new CentralServer(args[0]) : new CentralServer();
         server.start();
     }
 }
\ No newline at end of file
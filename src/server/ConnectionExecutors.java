@@ -0,0 +1,48 @@
+package server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import util.Settings;
+
+// Fábrica de ejecutores para atender conexiones entrantes:
+//  - thread:  un hilo de plataforma nuevo por conexión (comportamiento original)
+//  - virtual: un hilo virtual por conexión; el I/O bloqueante no ocupa un hilo del sistema
+//  - pool:    pool acotado de hilos de plataforma con cola limitada
+public class ConnectionExecutors {
+    public static final String THREAD = "thread";
+    public static final String VIRTUAL = "virtual";
+    public static final String POOL = "pool";
+
+    public static String configuredMode() {
+        return Settings.getString("CONNECTION_EXECUTOR", THREAD).toLowerCase();
+    }
+
+    public static ExecutorService create(String mode, String namePrefix) {
+        switch (mode) {
+            case VIRTUAL:
+                return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix + "-", 0).factory());
+            case POOL:
+                int poolSize = Settings.getInt("CONNECTION_POOL_SIZE", Runtime.getRuntime().availableProcessors() * 4);
+                int queueSize = Settings.getInt("CONNECTION_QUEUE_SIZE", 1000);
+                // Si el pool y la cola están llenos, el hilo que acepta atiende la conexión (backpressure)
+                return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueSize), namedFactory(namePrefix),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+            case THREAD:
+                return Executors.newThreadPerTaskExecutor(namedFactory(namePrefix));
+            default:
+                System.err.println("Unknown connection executor '" + mode + "', using '" + THREAD + "'");
+                return Executors.newThreadPerTaskExecutor(namedFactory(namePrefix));
+        }
+    }
+
+    private static ThreadFactory namedFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, namePrefix + "-" + counter.getAndIncrement());
+    }
+}
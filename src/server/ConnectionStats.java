@@ -0,0 +1,93 @@
+package server;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import util.LatencyHistogram;
+import util.Metrics;
+
+// Estadísticas de atención de conexiones para comparar los modos de ejecución:
+// número de hilos, memoria residente (RSS) y latencia por petición
+public class ConnectionStats {
+    private final String serverName;
+    private final String mode;
+    // El histograma y los detalles se publican también en Metrics (JMX y /metrics)
+    private final LatencyHistogram latency = Metrics.timer("meetings_request_seconds",
+            "Time to handle a meeting message, from receipt to acknowledgement").getHistogram();
+    private final AtomicLong requests = new AtomicLong();
+    private final Map<String, Supplier<Object>> details = new ConcurrentHashMap<>();
+
+    public ConnectionStats(String serverName, String mode) {
+        this.serverName = serverName;
+        this.mode = mode;
+    }
+
+    public void recordRequest(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+        requests.incrementAndGet();
+    }
+
+    // Valores adicionales que se añaden al resumen (p. ej. profundidad de colas)
+    public void addDetail(String name, Supplier<Object> value) {
+        details.put(name, value);
+        // Solo los valores numéricos tienen sentido como gauge (no los mapas por destinatario)
+        if (value.get() instanceof Number) {
+            Metrics.gauge("meetings_" + name.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(), "Current " + name, value);
+        }
+    }
+
+    // Imprime periódicamente un resumen si intervalSeconds > 0
+    public void startReporting(int intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, serverName + "-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> System.out.println(summary()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public String summary() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        StringBuilder extra = new StringBuilder();
+        for (Map.Entry<String, Supplier<Object>> detail : details.entrySet()) {
+            extra.append(' ').append(detail.getKey()).append('=').append(detail.getValue().get());
+        }
+        return String.format("[stats] %s mode=%s requests=%d threads=%d peakThreads=%d rssKb=%d p50=%.2fms p99=%.2fms max=%.2fms%s",
+                serverName, mode, requests.get(), threads.getThreadCount(), threads.getPeakThreadCount(),
+                residentSetKb(), toMillis(latency.getPercentile(50)), toMillis(latency.getPercentile(99)),
+                toMillis(latency.getMax()), extra);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // Lee VmRSS de /proc (Linux); devuelve -1 si no está disponible
+    private static long residentSetKb() {
+        Path status = Paths.get("/proc/self/status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // No disponible fuera de Linux
+        }
+        return -1;
+    }
+}
@@ -1,25 +1,70 @@
 package server;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import model.MeetingEnvelope;
+import model.Trace;
+import observer.AsyncObserver;
+import observer.DispatchPolicy;
+import observer.MeetingIndex;
+import observer.MeetingStore;
 import observer.MeetingUpdateObserver;
+import observer.MissingBaseException;
 import observer.Observer;
 import observer.Subject;
+import observer.WriteDurability;
+import protocol.Frame;
+import protocol.FrameResponder;
+import protocol.FrameType;
+import protocol.WireFormat;
+import util.Metrics;
+import util.Settings;
+import util.StripedLock;
+import util.TraceLog;
 
 public class EmployeeServer implements Subject {
-    private List<Observer> observers = new ArrayList<>();
+    private static final Metrics.Counter acceptedConnections =
+            Metrics.counter("meetings_connections_accepted_total", "Accepted client connections");
+    private static final Metrics.Counter bytesRead = Metrics.counter("meetings_bytes_read_total", "Bytes received from clients");
+    // Se recorre en cada mensaje y casi nunca cambia: iterar no bloquea ni ve modificaciones a medias
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
     private String employeeName;
     private int port;
+    private ConnectionStats stats;
+    // Reuniones vigentes del empleado en memoria; el archivo se escribe de forma asíncrona
+    private final MeetingIndex meetingIndex = new MeetingIndex();
+    private final MeetingStore meetingStore;
+    // Cada conexión se atiende en su propio hilo: las actualizaciones de una misma reunión se
+    // aplican en orden bajo su franja y las de reuniones distintas en paralelo
+    private final StripedLock meetingLocks = StripedLock.forCores();
     
     public EmployeeServer(String employeeName, int port) {
         this.employeeName = employeeName;
         this.port = port;
-        registerObserver(new MeetingUpdateObserver(employeeName));
+        this.meetingStore = new MeetingStore(employeeName, "/app/data/" + employeeName + "_meetings.txt", meetingIndex,
+                "log".equalsIgnoreCase(Settings.getString("MEETING_STORAGE_MODE", "rewrite")),
+                Settings.getInt("MEETING_LOG_COMPACT_MIN_RECORDS", 64),
+                Settings.getInt("MEETING_SNAPSHOT_INTERVAL_SECONDS", 60),
+                WriteDurability.parse(Settings.getString("MEETING_WRITE_DURABILITY", "batch"), WriteDurability.BATCH),
+                Settings.getLong("MEETING_WRITE_WINDOW_MS", 2));
+        meetingStore.recover();
+        meetingStore.start();
+        // Al parar el contenedor se vacían las colas de los observadores y después se escriben
+        // los cambios pendientes y un último snapshot
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "employee-server-shutdown"));
+        registerObserver(new MeetingUpdateObserver(employeeName, meetingIndex, meetingStore),
+                DispatchPolicy.parse(Settings.getString("MEETING_OBSERVER_DISPATCH", "sync"), DispatchPolicy.SYNC));
     }
     
     @Override
@@ -29,26 +74,67 @@ public class EmployeeServer implements Subject {
     
     @Override
     public void removeObserver(Observer observer) {
-        observers.remove(observer);
+        for (Observer registered : observers) {
+            if (registered == observer
+                    || (registered instanceof AsyncObserver && ((AsyncObserver) registered).getDelegate() == observer)) {
+                observers.remove(registered);
+                if (registered instanceof AsyncObserver) {
+                    ((AsyncObserver) registered).close();
+                }
+            }
+        }
     }
     
     @Override
-    public void notifyObservers(String message) {
+    public void notifyObservers(MeetingEnvelope message) {
         for (Observer observer : observers) {
             observer.update(message);
         }
     }
     
+    private int getQueuedNotifications() {
+        int queued = 0;
+        for (Observer observer : observers) {
+            if (observer instanceof AsyncObserver) {
+                queued += ((AsyncObserver) observer).getQueuedCount();
+            }
+        }
+        return queued;
+    }
+    
+    private void shutdown() {
+        for (Observer observer : observers) {
+            if (observer instanceof AsyncObserver) {
+                ((AsyncObserver) observer).close();
+            }
+        }
+        meetingStore.close();
+    }
+    
     public void start() {
+        String executorMode = ConnectionExecutors.configuredMode();
+        ExecutorService connectionExecutor = ConnectionExecutors.create(executorMode, employeeName + "-conn");
+        stats = new ConnectionStats(employeeName, executorMode);
+        stats.addDetail("meetings", meetingIndex::size);
+        stats.addDetail("pendingWrites", meetingStore::getPendingWrites);
+        stats.addDetail("writeBatches", meetingStore::getWrittenBatches);
+        stats.addDetail("writtenUpdates", meetingStore::getWrittenUpdates);
+        stats.addDetail("lockStripes", meetingLocks::size);
+        stats.addDetail("observerQueue", this::getQueuedNotifications);
+        stats.startReporting(Settings.getInt("STATS_INTERVAL_SECONDS", 0));
+        Metrics.expose(employeeName, Settings.getInt("METRICS_PORT", port + 1000));
+        TraceLog.open(employeeName);
+        
         try {
             ServerSocket serverSocket = new ServerSocket(port);
-            System.out.println("Employee Server " + employeeName + " started on port " + port);
+            System.out.println("Employee Server " + employeeName + " started on port " + port + " (executor: " + executorMode + ")");
             
             while (true) {
                 try {
                     Socket clientSocket = serverSocket.accept();
+                    acceptedConnections.increment();
                     System.out.println("Connection received on " + employeeName + "'s server");
-                    new Thread(() -> handleClientConnection(clientSocket)).start();
+                    connectionExecutor.execute(() -> handleClientConnection(clientSocket));
                 } catch (IOException e) {
                     System.err.println("Error accepting connection: " + e.getMessage());
                 }
@@ -61,23 +147,87 @@ public class EmployeeServer implements Subject {
     
     private void handleClientConnection(Socket clientSocket) {
         try {
-            BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+            BufferedInputStream input = new BufferedInputStream(clientSocket.getInputStream());
             
-            StringBuilder messageBuilder = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) {
-                messageBuilder.append(line).append("\n");
+            if (FrameResponder.startsWithFrame(input)) {
+                // Protocolo de frames: el mediador envía varios mensajes por conexión y espera un ACK por cada uno
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+                FrameResponder.serve(new DataInputStream(input), out, this::handleFrame);
+            } else {
+                readTextMessages(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
             }
             
-            String message = messageBuilder.toString();
-            notifyObservers(message);
-            
             clientSocket.close();
         } catch (IOException e) {
             System.err.println("Error handling client connection: " + e.getMessage());
         }
     }
     
+    // Formato de texto antiguo: mensajes separados por una línea vacía o uno solo hasta el cierre del socket
+    private void readTextMessages(BufferedReader in) throws IOException {
+        StringBuilder messageBuilder = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (messageBuilder.length() > 0) {
+                    processTextMessage(messageBuilder.toString());
+                    messageBuilder.setLength(0);
+                }
+            } else {
+                messageBuilder.append(line).append("\n");
+            }
+        }
+        
+        if (messageBuilder.length() > 0) {
+            processTextMessage(messageBuilder.toString());
+        }
+    }
+    
+    // Bytes en UTF-8, como los cuentan los frames: length() son caracteres
+    private void processTextMessage(String message) {
+        bytesRead.add(message.getBytes(StandardCharsets.UTF_8).length);
+        processMessage(WireFormat.decodeText(message));
+    }
+    
+    private byte[] handleFrame(Frame frame) throws IOException {
+        if (frame.getType() != FrameType.MEETING) {
+            throw new IOException("Unsupported frame type " + frame.getType());
+        }
+        try {
+            processMessage(WireFormat.decodeMeeting(frame));
+        } catch (MissingBaseException e) {
+            // NACK con un motivo propio: el servidor central responde con la reunión completa
+            throw new IOException(WireFormat.MISSING_BASE + ": " + e.getMessage());
+        }
+        return null;
+    }
+    
+    private void processMessage(MeetingEnvelope message) {
+        long startedAt = System.nanoTime();
+        Trace trace = message.getTrace();
+        if (trace != null) {
+            recordCarriedHops(trace, message.getUuid());
+        }
+        synchronized (meetingLocks.lockFor(message.getUuid())) {
+            notifyObservers(message);
+        }
+        if (trace != null) {
+            TraceLog.record(trace.getId(), "employee.dispatched", TraceLog.nowMicros(), employeeName);
+        }
+        stats.recordRequest(startedAt);
+    }
+    
+    // Los saltos que trae el mensaje también se guardan aquí: con solo el registro de este
+    // servidor ya se ve el recorrido completo. TraceTimeline descarta los repetidos.
+    private void recordCarriedHops(Trace trace, String uuid) {
+        for (Trace.Hop hop : trace.getHops()) {
+            // El envío desde el servidor central es el único salto propio de este destinatario
+            String recipient = hop.getStage().equals("central.send") ? employeeName : null;
+            TraceLog.record(trace.getId(), hop.getStage(), hop.getMicros(), recipient);
+        }
+        TraceLog.record(trace.getId(), "employee.receive", TraceLog.nowMicros(), employeeName, uuid);
+    }
+    
     public static void main(String[] args) {
         // Los argumentos deben ser el nombre del empleado y el puerto
         if (args.length < 2) {
@@ -0,0 +1,384 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import protocol.Frame;
+import protocol.FrameCodec;
+import protocol.FrameResponder;
+import protocol.FrameType;
+import util.Metrics;
+
+// Servidor central no bloqueante: un hilo acepta conexiones y las reparte entre
+// un número fijo de event loops (Selector), sin crear un hilo por conexión
+public class NioCentralServer {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    // Límite de un mensaje: un frame (FrameCodec lo comprueba en la cabecera) o un mensaje de texto antiguo
+    private static final int MAX_MESSAGE_SIZE = FrameCodec.HEADER_SIZE + FrameCodec.MAX_PAYLOAD_SIZE;
+    // Los frames se decodifican tras cada lectura, así que sin consumir queda como mucho un frame
+    // incompleto más lo que trajo la última lectura
+    private static final int MAX_BUFFERED = MAX_MESSAGE_SIZE + READ_BUFFER_SIZE;
+    // Frames de una conexión que se atienden seguidos antes de ceder el hilo a otras conexiones
+    private static final int PROCESS_BATCH = 32;
+    private static final Metrics.Counter acceptedConnections =
+            Metrics.counter("meetings_connections_accepted_total", "Accepted client connections");
+    private static final Metrics.Counter bytesRead = Metrics.counter("meetings_bytes_read_total", "Bytes received from clients");
+
+    private final int port;
+    private final FrameResponder.MessageHandler messageHandler;
+    private final EventLoop[] eventLoops;
+    private final ExecutorService dispatcher;
+    // Frames de una conexión pendientes de respuesta a partir de los cuales se deja de leer de ella
+    private final int maxInFlight;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    public NioCentralServer(int port, int ioThreads, int dispatchThreads, int maxInFlight,
+                            FrameResponder.MessageHandler messageHandler) {
+        this.port = port;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.messageHandler = messageHandler;
+        this.eventLoops = new EventLoop[ioThreads];
+        // El mediador hace I/O bloqueante, así que no se ejecuta en los event loops
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads);
+    }
+
+    public void start() {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open();
+             Selector acceptSelector = Selector.open()) {
+            serverChannel.bind(new InetSocketAddress(port), 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+            for (int i = 0; i < eventLoops.length; i++) {
+                eventLoops[i] = new EventLoop(i);
+                eventLoops[i].start();
+            }
+            System.out.println("Central Server (nio) started on port " + port + " with "
+                    + eventLoops.length + " I/O threads");
+
+            while (true) {
+                acceptSelector.select();
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isAcceptable()) {
+                        SocketChannel channel;
+                        while ((channel = serverChannel.accept()) != null) {
+                            acceptedConnections.increment();
+                            channel.configureBlocking(false);
+                            channel.socket().setTcpNoDelay(true);
+                            // Reparto round-robin entre los event loops
+                            int index = Math.floorMod(nextLoop.getAndIncrement(), eventLoops.length);
+                            eventLoops[index].register(channel);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Central Server (nio) error: " + e.getMessage());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    // Atiende los frames de una conexión de uno en uno y en el orden en que llegaron, como
+    // FrameResponder.serve en modo bloqueante: un cliente que envía la eliminación y la reunión
+    // completa, o dos parches seguidos, los ve aplicados y confirmados en ese orden. Las
+    // conexiones distintas se siguen atendiendo en paralelo en el dispatcher.
+    private void process(Connection connection) {
+        for (int handled = 0; ; handled++) {
+            if (handled == PROCESS_BATCH) {
+                dispatcher.execute(() -> process(connection));
+                return;
+            }
+            Frame request = connection.nextRequest();
+            if (request == null) {
+                return;
+            }
+            Frame response = FrameResponder.respond(request, messageHandler);
+            connection.outbound.add(FrameCodec.encode(response));
+            connection.inFlight.decrementAndGet();
+            connection.loop.requestWrite(connection);
+        }
+    }
+
+    // Estado por conexión: solo los bytes recibidos y aún no procesados, sin buffers reservados de antemano
+    private static class Connection {
+        private static final int UNKNOWN = 0;
+        private static final int LEGACY = 1;
+        private static final int FRAMED = 2;
+
+        private final SocketChannel channel;
+        private final EventLoop loop;
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Frames recibidos a la espera de su turno; processing indica si hay una tarea atendiéndolos
+        private final Queue<Frame> requests = new ArrayDeque<>();
+        private boolean processing = false;
+        private SelectionKey key;
+        private byte[] data = new byte[0];
+        private int length = 0;
+        private int protocol = UNKNOWN;
+        private volatile boolean inputClosed = false;
+        // Solo lo usa el event loop: la lectura está parada porque hay maxInFlight frames sin responder
+        private boolean readPaused = false;
+
+        Connection(SocketChannel channel, EventLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+        }
+
+        boolean append(ByteBuffer buffer) {
+            int incoming = buffer.remaining();
+            if (length + incoming > MAX_BUFFERED) {
+                return false;
+            }
+            if (length + incoming > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + incoming, Math.min(data.length * 2, MAX_BUFFERED)));
+            }
+            buffer.get(data, length, incoming);
+            length += incoming;
+            return true;
+        }
+
+        // Descarta los bytes ya consumidos; si no queda nada se libera el buffer
+        void consume(int consumed) {
+            length -= consumed;
+            if (length == 0) {
+                data = new byte[0];
+            } else {
+                System.arraycopy(data, consumed, data, 0, length);
+            }
+        }
+
+        // Devuelve true si hay que lanzar la tarea que atiende la conexión
+        synchronized boolean enqueue(Frame request) {
+            requests.add(request);
+            if (processing) {
+                return false;
+            }
+            processing = true;
+            return true;
+        }
+
+        synchronized Frame nextRequest() {
+            Frame request = requests.poll();
+            if (request == null) {
+                processing = false;
+            }
+            return request;
+        }
+
+        String text() {
+            return new String(data, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private class EventLoop extends Thread {
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+        // Un único buffer de lectura por event loop, compartido por todas sus conexiones
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        EventLoop(int index) throws IOException {
+            super("central-nio-" + index);
+            setDaemon(true);
+            this.selector = Selector.open();
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        // Llamado desde los hilos del dispatcher cuando hay una respuesta lista
+        void requestWrite(Connection connection) {
+            pendingWrites.add(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    registerPending();
+                    flushPendingWrites();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isValid() && key.isWritable()) {
+                            write(connection);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(connection);
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("Event loop error: " + e.getMessage());
+                }
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    Connection connection = new Connection(channel, this);
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void flushPendingWrites() {
+            Connection connection;
+            while ((connection = pendingWrites.poll()) != null) {
+                if (connection.key.isValid()) {
+                    write(connection);
+                    resumeReading(connection);
+                }
+            }
+        }
+
+        private void read(Connection connection) {
+            try {
+                int read = 0;
+                // Cada lectura se decodifica enseguida: un cliente que envía muchos frames en pipeline
+                // no acumula más que el frame incompleto del final
+                while (!connection.readPaused && (read = connection.channel.read(readBuffer)) > 0) {
+                    bytesRead.add(read);
+                    readBuffer.flip();
+                    boolean accepted = connection.append(readBuffer);
+                    readBuffer.clear();
+                    if (connection.protocol == Connection.UNKNOWN) {
+                        connection.protocol = connection.data[0] == FrameCodec.MAGIC ? Connection.FRAMED : Connection.LEGACY;
+                    }
+                    if (!accepted || (connection.protocol == Connection.LEGACY && connection.length > MAX_MESSAGE_SIZE)) {
+                        System.err.println("Message too large, closing connection");
+                        close(connection);
+                        return;
+                    }
+                    if (connection.protocol == Connection.FRAMED) {
+                        decodeFrames(connection);
+                    }
+                }
+
+                if (read < 0) {
+                    connection.inputClosed = true;
+                    if (connection.protocol == Connection.LEGACY) {
+                        // Formato antiguo: el cliente cerró su lado y el mensaje está completo
+                        Frame legacy = Frame.text(FrameType.MEETING, 0, connection.text());
+                        close(connection);
+                        dispatcher.execute(() -> FrameResponder.respond(legacy, messageHandler));
+                    } else {
+                        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+                        closeIfDone(connection);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error handling client connection: " + e.getMessage());
+                readBuffer.clear();
+                close(connection);
+            }
+        }
+
+        // Pasa al dispatcher los frames completos del buffer. Con maxInFlight frames sin responder
+        // deja de leer de la conexión: el cliente se frena con el control de flujo de TCP en lugar
+        // de acumular trabajo en el dispatcher.
+        private void decodeFrames(Connection connection) throws IOException {
+            ByteBuffer view = ByteBuffer.wrap(connection.data, 0, connection.length);
+            Frame frame;
+            boolean startProcessing = false;
+            while (connection.inFlight.get() < maxInFlight && (frame = FrameCodec.decode(view)) != null) {
+                connection.inFlight.incrementAndGet();
+                startProcessing |= connection.enqueue(frame);
+            }
+            connection.consume(view.position());
+            if (startProcessing) {
+                dispatcher.execute(() -> process(connection));
+            }
+            if (connection.inFlight.get() >= maxInFlight && !connection.readPaused) {
+                connection.readPaused = true;
+                connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+
+        // Tras una respuesta: si la lectura estaba parada y ya hay sitio, se atienden los frames que
+        // quedaron en el buffer y se vuelve a leer del socket
+        private void resumeReading(Connection connection) {
+            if (!connection.readPaused || connection.inFlight.get() >= maxInFlight) {
+                return;
+            }
+            connection.readPaused = false;
+            try {
+                decodeFrames(connection);
+            } catch (IOException e) {
+                System.err.println("Error handling client connection: " + e.getMessage());
+                close(connection);
+                return;
+            }
+            if (!connection.readPaused && !connection.inputClosed && connection.key.isValid()) {
+                connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+            }
+        }
+
+        private void write(Connection connection) {
+            try {
+                ByteBuffer buffer;
+                while ((buffer = connection.outbound.peek()) != null) {
+                    connection.channel.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        // El socket está lleno: esperar a que se pueda escribir de nuevo
+                        connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    connection.outbound.poll();
+                }
+                connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_WRITE);
+                closeIfDone(connection);
+            } catch (IOException e) {
+                close(connection);
+            }
+        }
+
+        // Tras el cierre del cliente se esperan las respuestas pendientes antes de cerrar
+        private void closeIfDone(Connection connection) {
+            if (connection.inputClosed && connection.inFlight.get() == 0 && connection.outbound.isEmpty()) {
+                close(connection);
+            }
+        }
+
+        private void close(Connection connection) {
+            connection.key.cancel();
+            closeQuietly(connection.channel);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignorar
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reloj lógico híbrido (HLC) para versionar reuniones. Una versión es un long: los 44 bits altos
+// son milisegundos desde epoch (hasta el año 2527), los 8 siguientes un contador y los 12 bajos
+// el nodo (el proceso) que la generó. Cada versión nueva es mayor que la anterior de este proceso
+// y que cualquier versión observada, aunque el reloj del sistema vaya por detrás o dos cambios
+// caigan en el mismo milisegundo; comparar dos versiones es comparar dos long. Dos procesos que
+// generan una versión en el mismo milisegundo no empatan: gana el de nodo mayor, igual en todos
+// los servidores. Mientras los relojes estén en hora, la parte física es la hora real del cambio.
+public final class HybridClock {
+    private static final int LOGICAL_BITS = 20;
+    private static final int NODE_BITS = 12;
+    private static final int NODE_COUNT = 1 << NODE_BITS;
+    private static final long node = configuredNode();
+    // Último instante (milisegundos y contador, sin el nodo) generado u observado
+    private static final AtomicLong last = new AtomicLong();
+
+    private HybridClock() {
+    }
+
+    // Versión para un cambio hecho ahora en este proceso. Si el contador se agota en un mismo
+    // milisegundo, sigue en el siguiente: el reloj se adelanta un poco y luego lo alcanza la hora real.
+    public static long now() {
+        long physical = System.currentTimeMillis() << (LOGICAL_BITS - NODE_BITS);
+        long tick = last.updateAndGet(previous -> Math.max(previous + 1, physical));
+        return tick << NODE_BITS | node;
+    }
+
+    // Versión para un cambio sobre otra de la que se partió (quizá de un reloj adelantado)
+    public static long after(long observed) {
+        observe(observed);
+        return now();
+    }
+
+    public static void observe(long version) {
+        last.accumulateAndGet(version >>> NODE_BITS, Math::max);
+    }
+
+    // Versión equivalente a una fecha de modificación del formato anterior (sin VERSION=); el nodo
+    // 0 no lo usa ningún proceso, así que no coincide con una versión generada
+    public static long fromDateTime(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return 0;
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() << LOGICAL_BITS;
+    }
+
+    // Parte física de la versión, para LAST_MODIFIED
+    public static LocalDateTime toDateTime(long version) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(version >>> LOGICAL_BITS), ZoneId.systemDefault());
+    }
+
+    public static int getNode() {
+        return (int) node;
+    }
+
+    // CLOCK_NODE_ID fija el nodo (1 a 4095, distinto en cada proceso que edita reuniones); sin él se
+    // elige uno al azar, y dos procesos solo comparten nodo con probabilidad 1/4095
+    private static long configuredNode() {
+        int configured = Settings.getInt("CLOCK_NODE_ID", 0);
+        if (configured > 0 && configured < NODE_COUNT) {
+            return configured;
+        }
+        if (configured != 0) {
+            System.err.println("CLOCK_NODE_ID must be between 1 and " + (NODE_COUNT - 1) + ", using a random node");
+        }
+        return ThreadLocalRandom.current().nextInt(1, NODE_COUNT);
+    }
+}
@@ -0,0 +1,211 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Árbol de intervalos [inicio, fin) identificados por un id. Es un treap ordenado por (inicio, id)
+// en el que cada nodo guarda el fin máximo de su subárbol, así que las consultas descartan ramas
+// enteras: solapamiento en O(log n + k), los k siguientes a una fecha en O(log n + k), e insertar
+// o quitar en O(log n) esperado. No es thread-safe; quien lo comparta debe sincronizarlo.
+public class IntervalTree<T extends Comparable<? super T>, V> {
+    private final class Node {
+        final String id;
+        final T start;
+        final T end;
+        final V value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        T maxEnd;
+
+        Node(String id, T start, T end, V value) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.maxEnd = end;
+        }
+
+        int compareTo(Node other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : id.compareTo(other.id);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.compareTo(maxEnd) > 0) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.compareTo(maxEnd) > 0) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+
+    private final Map<String, Node> byId = new HashMap<>();
+    private Node root;
+
+    public int size() {
+        return byId.size();
+    }
+
+    public V get(String id) {
+        Node node = byId.get(id);
+        return node != null ? node.value : null;
+    }
+
+    // Sustituye el intervalo anterior con el mismo id, si lo había. Un fin anterior al inicio se
+    // trata como un intervalo vacío en el inicio.
+    public void put(String id, T start, T end, V value) {
+        remove(id);
+        Node node = new Node(id, start, end.compareTo(start) < 0 ? start : end, value);
+        root = insert(root, node);
+        byId.put(id, node);
+    }
+
+    public V remove(String id) {
+        Node node = byId.remove(id);
+        if (node == null) {
+            return null;
+        }
+        root = delete(root, node);
+        return node.value;
+    }
+
+    public void clear() {
+        byId.clear();
+        root = null;
+    }
+
+    // Intervalos que se solapan con [from, to), ordenados por inicio. Los intervalos vacíos
+    // cuentan si su inicio cae dentro del rango.
+    public List<V> overlapping(T from, T to) {
+        List<V> result = new ArrayList<>();
+        collectOverlapping(root, from, to, result);
+        return result;
+    }
+
+    // Los primeros limit intervalos que empiezan en from o después, ordenados por inicio
+    public List<V> startingFrom(T from, int limit) {
+        List<V> result = new ArrayList<>();
+        collectFrom(root, from, limit, result);
+        return result;
+    }
+
+    // Todos los valores ordenados por inicio
+    public List<V> values() {
+        List<V> result = new ArrayList<>(byId.size());
+        collectAll(root, result);
+        return result;
+    }
+
+    private Node insert(Node subtree, Node node) {
+        if (subtree == null) {
+            return node;
+        }
+        if (node.compareTo(subtree) < 0) {
+            subtree.left = insert(subtree.left, node);
+            if (subtree.left.priority > subtree.priority) {
+                subtree = rotateRight(subtree);
+            }
+        } else {
+            subtree.right = insert(subtree.right, node);
+            if (subtree.right.priority > subtree.priority) {
+                subtree = rotateLeft(subtree);
+            }
+        }
+        subtree.update();
+        return subtree;
+    }
+
+    private Node delete(Node subtree, Node node) {
+        if (subtree == null) {
+            return null;
+        }
+        if (subtree != node) {
+            if (node.compareTo(subtree) < 0) {
+                subtree.left = delete(subtree.left, node);
+            } else {
+                subtree.right = delete(subtree.right, node);
+            }
+            subtree.update();
+            return subtree;
+        }
+        // Se baja el nodo rotando hacia el hijo de más prioridad hasta que queda con un solo hijo
+        if (subtree.left == null) {
+            return subtree.right;
+        }
+        if (subtree.right == null) {
+            return subtree.left;
+        }
+        Node top;
+        if (subtree.left.priority > subtree.right.priority) {
+            top = rotateRight(subtree);
+            top.right = delete(top.right, node);
+        } else {
+            top = rotateLeft(subtree);
+            top.left = delete(top.left, node);
+        }
+        top.update();
+        return top;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private void collectOverlapping(Node node, T from, T to, List<V> result) {
+        // Ninguno de este subárbol termina después de from
+        if (node == null || node.maxEnd.compareTo(from) < 0) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.start.compareTo(to) >= 0) {
+            // Este y todos los de la derecha empiezan después del rango
+            return;
+        }
+        if (node.end.compareTo(from) > 0 || node.start.compareTo(from) >= 0) {
+            result.add(node.value);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private void collectFrom(Node node, T from, int limit, List<V> result) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        if (node.start.compareTo(from) >= 0) {
+            collectFrom(node.left, from, limit, result);
+            if (result.size() < limit) {
+                result.add(node.value);
+            }
+        }
+        collectFrom(node.right, from, limit, result);
+    }
+
+    private void collectAll(Node node, List<V> result) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, result);
+        result.add(node.value);
+        collectAll(node.right, result);
+    }
+}
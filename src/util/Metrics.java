@@ -0,0 +1,277 @@
+package util;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+
+// Registro de métricas del proceso: contadores, gauges y temporizadores con histograma.
+// Las métricas se crean una vez (normalmente en un campo static final) y registrar un valor
+// solo toca un LongAdder o un LatencyHistogram: sin bloqueos ni reservas de memoria, así que
+// pueden quedarse activas en producción. Se publican por JMX (meetings:type=Metrics) y en
+// formato de texto de Prometheus en http://<host>:<puerto>/metrics.
+public final class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final Map<String, Entry> registry = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    // Tiempos en nanosegundos; se publican en segundos
+    public static final class Timer {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        // Uso habitual: long startedAt = System.nanoTime(); ... timer.recordSince(startedAt);
+        public void recordSince(long startNanos) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+
+        public void recordNanos(long nanos) {
+            histogram.record(nanos);
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    private static final class Entry {
+        final String name;
+        final String labels; // "" o 'clave="valor"'
+        final String help;
+        final Object metric;
+
+        Entry(String name, String labels, String help, Object metric) {
+            this.name = name;
+            this.labels = labels;
+            this.help = help;
+            this.metric = metric;
+        }
+    }
+
+    public static Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+
+    public static Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) register(name, help, labelName, labelValue, Counter::new);
+    }
+
+    public static Timer timer(String name, String help) {
+        return timer(name, help, null, null);
+    }
+
+    public static Timer timer(String name, String help, String labelName, String labelValue) {
+        return (Timer) register(name, help, labelName, labelValue, Timer::new);
+    }
+
+    // Valor que se lee al publicar; los que no son numéricos se ignoran
+    public static void gauge(String name, String help, Supplier<?> value) {
+        registry.put(name, new Entry(name, "", help, value));
+    }
+
+    private static Object register(String name, String help, String labelName, String labelValue,
+                                   Supplier<Object> factory) {
+        String labels = labelName != null
+                ? labelName + "=\"" + labelValue.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+                : "";
+        String key = labels.isEmpty() ? name : name + "{" + labels + "}";
+        return registry.computeIfAbsent(key, k -> new Entry(name, labels, help, factory.get())).metric;
+    }
+
+    // Formato de exposición de texto de Prometheus; los temporizadores se publican como summary
+    public static String scrape() {
+        Map<String, List<Entry>> byName = new TreeMap<>();
+        for (Entry entry : registry.values()) {
+            byName.computeIfAbsent(entry.name, name -> new ArrayList<>()).add(entry);
+        }
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, List<Entry>> family : byName.entrySet()) {
+            String name = family.getKey();
+            List<Entry> entries = family.getValue();
+            entries.sort((a, b) -> a.labels.compareTo(b.labels));
+            Object first = entries.get(0).metric;
+            String type = first instanceof Counter ? "counter" : first instanceof Timer ? "summary" : "gauge";
+            out.append("# HELP ").append(name).append(' ').append(entries.get(0).help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            for (Entry entry : entries) {
+                appendSamples(out, entry);
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendSamples(StringBuilder out, Entry entry) {
+        if (entry.metric instanceof Counter) {
+            appendSample(out, entry.name, entry.labels, null, ((Counter) entry.metric).get());
+        } else if (entry.metric instanceof Timer) {
+            LatencyHistogram histogram = ((Timer) entry.metric).getHistogram();
+            for (double quantile : QUANTILES) {
+                appendSample(out, entry.name, entry.labels, "quantile=\"" + quantile + "\"",
+                        histogram.getPercentile(quantile * 100) / 1e9);
+            }
+            appendSample(out, entry.name + "_sum", entry.labels, null, histogram.getMean() * histogram.getCount() / 1e9);
+            appendSample(out, entry.name + "_count", entry.labels, null, histogram.getCount());
+            appendSample(out, entry.name + "_max", entry.labels, null, histogram.getMax() / 1e9);
+        } else {
+            Object value = ((Supplier<?>) entry.metric).get();
+            if (value instanceof Number) {
+                appendSample(out, entry.name, entry.labels, null, (Number) value);
+            }
+        }
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, String extraLabel, Number value) {
+        out.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{').append(labels);
+            if (extraLabel != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    // Registra el MBean y, si httpPort > 0, el endpoint /metrics. Un fallo no impide arrancar el servidor.
+    public static void expose(String serverName, int httpPort) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(),
+                    new ObjectName("meetings:type=Metrics,server=" + ObjectName.quote(serverName)));
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
+        }
+        if (httpPort <= 0) {
+            return;
+        }
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(httpPort), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, serverName + "-metrics");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            System.out.println("Metrics for " + serverName + " on http://0.0.0.0:" + httpPort + "/metrics");
+        } catch (IOException e) {
+            System.err.println("Could not start metrics endpoint on port " + httpPort + ": " + e.getMessage());
+        }
+    }
+
+    // Un atributo por contador o gauge; los temporizadores tienen count, mean, p50, p99 y max en microsegundos
+    private static class MetricsMBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Map<String, Object> values = attributes();
+            if (!values.containsKey(attribute)) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return values.get(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            Map<String, Object> values = attributes();
+            AttributeList list = new AttributeList();
+            for (String name : names) {
+                if (values.containsKey(name)) {
+                    list.add(new Attribute(name, values.get(name)));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            return null;
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> infos = new ArrayList<>();
+            for (Map.Entry<String, Object> value : attributes().entrySet()) {
+                String type = value.getValue() instanceof Double ? "java.lang.Double" : "java.lang.Long";
+                infos.add(new MBeanAttributeInfo(value.getKey(), type, value.getKey(), true, false, false));
+            }
+            return new MBeanInfo(Metrics.class.getName(), "Meeting system metrics",
+                    infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+
+        private Map<String, Object> attributes() {
+            Map<String, Object> values = new TreeMap<>();
+            for (Map.Entry<String, Entry> registered : registry.entrySet()) {
+                String key = registered.getKey();
+                Object metric = registered.getValue().metric;
+                if (metric instanceof Counter) {
+                    values.put(key, ((Counter) metric).get());
+                } else if (metric instanceof Timer) {
+                    LatencyHistogram histogram = ((Timer) metric).getHistogram();
+                    values.put(key + ".count", histogram.getCount());
+                    values.put(key + ".meanMicros", histogram.getMean() / 1000.0);
+                    values.put(key + ".p50Micros", histogram.getPercentile(50) / 1000);
+                    values.put(key + ".p99Micros", histogram.getPercentile(99) / 1000);
+                    values.put(key + ".maxMicros", histogram.getMax() / 1000);
+                } else {
+                    Object value = ((Supplier<?>) metric).get();
+                    if (value instanceof Number) {
+                        values.put(key, ((Number) value).longValue());
+                    }
+                }
+            }
+            return values;
+        }
+    }
+}
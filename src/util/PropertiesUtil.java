@@ -2,12 +2,16 @@ package util;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class PropertiesUtil {
     private static final String PROPERTIES_FILE = "employees.properties";
+    private static final String GROUPS_FILE = "groups.properties";
     private static Properties properties = null;
     
     static {
@@ -50,4 +54,32 @@ public class PropertiesUtil {
         }
         return -1; // Port not found
     }
+    
+    // Listas de distribución opcionales con el formato grupo=Empleado1,Empleado2,@otroGrupo
+    public static Map<String, List<String>> getGroups() {
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        File file = new File(GROUPS_FILE);
+        if (!file.exists()) {
+            return groups;
+        }
+        
+        Properties groupProperties = new Properties();
+        try (FileInputStream in = new FileInputStream(file)) {
+            groupProperties.load(in);
+        } catch (IOException e) {
+            System.err.println("Error loading groups file: " + e.getMessage());
+            return groups;
+        }
+        
+        for (String group : groupProperties.stringPropertyNames()) {
+            List<String> members = new ArrayList<>();
+            for (String member : groupProperties.getProperty(group).split(",")) {
+                if (!member.trim().isEmpty()) {
+                    members.add(member.trim());
+                }
+            }
+            groups.put(group, members);
+        }
+        return groups;
+    }
 }
\ No newline at end of file
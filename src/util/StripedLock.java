@@ -0,0 +1,40 @@
+package util;
+
+// Conjunto fijo de monitores repartidos por hash de la clave: dos operaciones sobre la misma
+// clave (por ejemplo el UUID de una reunión) se serializan en el orden en que toman el monitor,
+// mientras que claves distintas caen casi siempre en monitores distintos y avanzan en paralelo.
+// La memoria no crece con el número de claves.
+public class StripedLock {
+    private final Object[] stripes;
+    private final int mask;
+
+    public StripedLock(int minimumStripes) {
+        int size = 1;
+        while (size < minimumStripes && size < (1 << 16)) {
+            size <<= 1;
+        }
+        stripes = new Object[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Object();
+        }
+        mask = size - 1;
+    }
+
+    // Por defecto unas cuatro franjas por núcleo para que las colisiones sean raras
+    public static StripedLock forCores() {
+        return new StripedLock(Settings.getInt("LOCK_STRIPES", Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    public Object lockFor(Object key) {
+        if (key == null) {
+            return stripes[0];
+        }
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16); // la máscara solo mira los bits bajos; se mezclan también los altos
+        return stripes[hash & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
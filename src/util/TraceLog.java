@@ -0,0 +1,125 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Registro local de trazas del proceso: una línea por etapa de un mensaje trazado
+//   <traza> <micros desde epoch> <etapa> <destinatario o -> [nota]
+// en TRACE_DIR/<proceso>.trace. Registrar solo encola la línea; la escribe un hilo aparte y,
+// si la cola está llena, la línea se descarta (y se cuenta) antes que frenar el reparto.
+// util.TraceTimeline junta los archivos de todos los procesos y reconstruye cada mensaje.
+public final class TraceLog {
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int SAMPLE_ONE_IN = Settings.getInt("TRACE_SAMPLE_ONE_IN", 1);
+    // Reloj de pared con resolución de microsegundos sin crear un Instant por marca: se fija una
+    // vez y avanza con nanoTime, así que dentro del proceso las marcas nunca van hacia atrás
+    private static final long epochOffsetMicros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now())
+            - TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+    private static final Metrics.Counter dropped = Metrics.counter("meetings_trace_dropped_total",
+            "Trace spans discarded because the trace log queue was full");
+
+    private static BlockingQueue<String> queue;
+
+    private TraceLog() {
+    }
+
+    public static long nowMicros() {
+        return epochOffsetMicros + TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+    }
+
+    // Decide si un mensaje nuevo se traza; solo lo pregunta quien lo origina (el cliente).
+    // Los servidores trazan los mensajes que ya llegan con traza.
+    public static boolean sample() {
+        if (SAMPLE_ONE_IN <= 0) {
+            return false;
+        }
+        return SAMPLE_ONE_IN == 1 || ThreadLocalRandom.current().nextInt(SAMPLE_ONE_IN) == 0;
+    }
+
+    // La primera llamada del proceso abre el archivo; las siguientes no hacen nada. Si no se puede
+    // abrir, el proceso funciona igual sin registrar trazas.
+    public static synchronized void open(String processName) {
+        if (queue != null) {
+            return;
+        }
+        File directory = new File(Settings.getString("TRACE_DIR", "/app/data/trace"));
+        File file = new File(directory, processName.replaceAll("[^A-Za-z0-9_.-]", "_") + ".trace");
+        Writer writer;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("cannot create " + directory);
+            }
+            writer = new BufferedWriter(new FileWriter(file, true), 64 * 1024);
+        } catch (IOException e) {
+            System.err.println("Tracing disabled for " + processName + ": " + e.getMessage());
+            return;
+        }
+        BlockingQueue<String> lines = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread thread = new Thread(() -> writeLoop(lines, writer), "trace-log");
+        thread.setDaemon(true);
+        thread.start();
+        queue = lines;
+        System.out.println("Trace log for " + processName + ": " + file.getPath());
+    }
+
+    public static void record(String traceId, String stage, long micros, String recipient) {
+        record(traceId, stage, micros, recipient, null);
+    }
+
+    public static void record(String traceId, String stage, long micros, String recipient, String note) {
+        BlockingQueue<String> lines = queue;
+        if (lines == null || traceId == null) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(80);
+        line.append(traceId).append(' ').append(micros).append(' ').append(stage).append(' ')
+                .append(recipient != null ? token(recipient) : "-");
+        if (note != null) {
+            line.append(' ').append(token(note));
+        }
+        if (!lines.offer(line.toString())) {
+            dropped.increment();
+        }
+    }
+
+    // Los campos van separados por espacios
+    private static String token(String value) {
+        return value.indexOf(' ') < 0 ? value : value.replace(' ', '_');
+    }
+
+    private static void writeLoop(BlockingQueue<String> lines, Writer writer) {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(lines.take());
+                lines.drainTo(batch);
+                for (String line : batch) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+                batch.clear();
+                // Se vacía el búfer en cuanto no queda nada pendiente: las trazas de un proceso
+                // que muere quedan en el archivo
+                if (lines.isEmpty()) {
+                    writer.flush();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Error writing trace log: " + e.getMessage());
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reconstruye el recorrido de los mensajes trazados a partir de los archivos de TraceLog de uno o
+// varios procesos (los de todos los contenedores, copiados a un mismo directorio):
+//  - sin filtro: tiempos de cada tramo entre etapas (p50/p90/p99/max) y las trazas más lentas
+//  - con --trace <id> o --meeting <uuid>: la línea de tiempo completa de esos mensajes
+//
+// java -cp classes util.TraceTimeline [--trace ID] [--meeting UUID] [--slowest N] <archivo o directorio>...
+//
+// Las marcas de tiempo de procesos distintos vienen de relojes distintos: en la misma máquina
+// (o con NTP) el desfase es pequeño, pero un tramo entre servidores puede salir algo desplazado.
+public class TraceTimeline {
+    private static final String COMMON = "-";
+
+    static class Span {
+        final long micros;
+        final String stage;
+        final String recipient;
+        String note;
+
+        Span(long micros, String stage, String recipient, String note) {
+            this.micros = micros;
+            this.stage = stage;
+            this.recipient = recipient;
+            this.note = note;
+        }
+    }
+
+    static class TraceRecord {
+        final String id;
+        // Clave etapa|micros|destinatario: el mismo salto puede aparecer en varios archivos
+        final Map<String, Span> spans = new LinkedHashMap<>();
+        String meeting;
+
+        TraceRecord(String id) {
+            this.id = id;
+        }
+
+        void add(Span span) {
+            Span existing = spans.putIfAbsent(span.stage + "|" + span.micros + "|" + span.recipient, span);
+            if (existing != null && existing.note == null) {
+                existing.note = span.note;
+            }
+            if (meeting == null && span.note != null && isMeetingStage(span.stage)) {
+                meeting = span.note;
+            }
+        }
+
+        List<Span> sorted() {
+            List<Span> list = new ArrayList<>(spans.values());
+            list.sort((a, b) -> Long.compare(a.micros, b.micros));
+            return list;
+        }
+
+        long duration() {
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (Span span : spans.values()) {
+                first = Math.min(first, span.micros);
+                last = Math.max(last, span.micros);
+            }
+            return last - first;
+        }
+
+        // Etapa de la que sale cada tramo: la más reciente de las candidatas en el recorrido del
+        // mismo destinatario (o en las comunes), aunque el desfase entre relojes la ponga después.
+        // Las etapas desconocidas salen de la anterior en el tiempo; client.send no tiene origen.
+        Span parentOf(Span span, List<Span> sorted) {
+            String[] candidates = PARENTS.get(span.stage);
+            if (candidates == null) {
+                return latestBefore(sorted, span);
+            }
+            for (String candidate : candidates) {
+                Span found = null;
+                for (Span other : sorted) {
+                    if (other != span && other.stage.equals(candidate) && related(span, other)) {
+                        found = other;
+                    }
+                }
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+
+        private Span latestBefore(List<Span> sorted, Span span) {
+            Span found = null;
+            for (Span other : sorted) {
+                if (other == span) {
+                    break;
+                }
+                if (related(span, other)) {
+                    found = other;
+                }
+            }
+            return found;
+        }
+
+        private static boolean related(Span span, Span other) {
+            return span.recipient.equals(COMMON) || other.recipient.equals(COMMON)
+                    || other.recipient.equals(span.recipient);
+        }
+    }
+
+    // Orden del recorrido de un mensaje: la respuesta al cliente sale del último destinatario
+    // entregado y la escritura en el archivo va en paralelo a la respuesta, desde el observador
+    private static final Map<String, String[]> PARENTS = new LinkedHashMap<>();
+    private static final List<String> STAGE_ORDER = new ArrayList<>();
+
+    static {
+        PARENTS.put("client.send", new String[0]);
+        PARENTS.put("central.receive", new String[] {"client.send"});
+        PARENTS.put("central.routed", new String[] {"central.receive"});
+        PARENTS.put("central.send", new String[] {"central.routed"});
+        PARENTS.put("employee.receive", new String[] {"central.send"});
+        PARENTS.put("observer.apply", new String[] {"employee.receive"});
+        PARENTS.put("store.write", new String[] {"observer.apply"});
+        PARENTS.put("employee.dispatched", new String[] {"observer.apply", "employee.receive"});
+        PARENTS.put("central.delivered", new String[] {"employee.dispatched", "central.send"});
+        PARENTS.put("central.failed", new String[] {"central.send"});
+        PARENTS.put("central.deferred", new String[] {"central.send", "central.routed"});
+        PARENTS.put("central.reply", new String[] {"central.delivered", "central.deferred", "central.failed",
+                "central.routed"});
+        PARENTS.put("client.ack", new String[] {"central.reply"});
+        PARENTS.put("client.error", new String[] {"client.send"});
+        STAGE_ORDER.addAll(PARENTS.keySet());
+    }
+
+    // Tramos en el orden del recorrido; los de etapas desconocidas al final
+    private static int order(String segment) {
+        int index = STAGE_ORDER.indexOf(segment.substring(segment.indexOf(" -> ") + 4));
+        return index >= 0 ? index : STAGE_ORDER.size();
+    }
+
+    private static boolean isMeetingStage(String stage) {
+        return stage.equals("client.send") || stage.equals("central.receive") || stage.equals("employee.receive");
+    }
+
+    public static Map<String, TraceRecord> load(List<File> files) throws IOException {
+        Map<String, TraceRecord> traces = new HashMap<>();
+        for (File file : files) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(" ");
+                    if (fields.length < 4) {
+                        continue;
+                    }
+                    long micros;
+                    try {
+                        micros = Long.parseLong(fields[1]);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    Span span = new Span(micros, fields[2], fields[3], fields.length > 4 ? fields[4] : null);
+                    traces.computeIfAbsent(fields[0], TraceRecord::new).add(span);
+                }
+            }
+        }
+        return traces;
+    }
+
+    // Tiempos de cada tramo "etapa de origen -> etapa", en microsegundos
+    public static Map<String, LatencyHistogram> breakdown(Iterable<TraceRecord> traces) {
+        Map<String, LatencyHistogram> segments = new TreeMap<>((a, b) -> order(a) != order(b)
+                ? Integer.compare(order(a), order(b)) : a.compareTo(b));
+        for (TraceRecord trace : traces) {
+            List<Span> sorted = trace.sorted();
+            for (Span span : sorted) {
+                Span parent = trace.parentOf(span, sorted);
+                if (parent != null) {
+                    segments.computeIfAbsent(parent.stage + " -> " + span.stage, s -> new LatencyHistogram())
+                            .record(Math.max(0, span.micros - parent.micros));
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static void printBreakdown(Map<String, TraceRecord> traces) {
+        Map<String, LatencyHistogram> segments = breakdown(traces.values());
+        LatencyHistogram total = new LatencyHistogram();
+        for (TraceRecord trace : traces.values()) {
+            total.record(trace.duration());
+        }
+        System.out.println(traces.size() + " traces");
+        System.out.println();
+        System.out.printf("%-44s %8s %9s %9s %9s %9s%n", "segment", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, LatencyHistogram> entry : segments.entrySet()) {
+            printRow(entry.getKey(), entry.getValue());
+        }
+        printRow("end to end", total);
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram) {
+        System.out.printf("%-44s %8d %9.3f %9.3f %9.3f %9.3f%n", name, histogram.getCount(),
+                histogram.getPercentile(50) / 1000.0, histogram.getPercentile(90) / 1000.0,
+                histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    private static void printTimeline(TraceRecord trace) {
+        List<Span> spans = trace.sorted();
+        long first = spans.isEmpty() ? 0 : spans.get(0).micros;
+        System.out.println();
+        System.out.println("trace " + trace.id + (trace.meeting != null ? "  meeting " + trace.meeting : "")
+                + String.format("  %.3f ms", trace.duration() / 1000.0));
+        for (Span span : spans) {
+            Span parent = trace.parentOf(span, spans);
+            String delta = parent != null
+                    ? String.format("(+%.3f from %s)", (span.micros - parent.micros) / 1000.0, parent.stage)
+                    : "";
+            System.out.printf("  %10.3f ms  %-20s %-16s %-38s %s%n", (span.micros - first) / 1000.0, span.stage,
+                    span.recipient.equals(COMMON) ? "" : span.recipient, delta, span.note != null ? span.note : "");
+        }
+    }
+
+    private static List<File> traceFiles(List<String> paths) {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                File[] children = file.listFiles((dir, name) -> name.endsWith(".trace"));
+                if (children != null) {
+                    Arrays.sort(children);
+                    files.addAll(Arrays.asList(children));
+                }
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String traceId = null;
+        String meeting = null;
+        int slowest = 5;
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--trace") && i + 1 < args.length) {
+                traceId = args[++i];
+            } else if (args[i].equals("--meeting") && i + 1 < args.length) {
+                meeting = args[++i];
+            } else if (args[i].equals("--slowest") && i + 1 < args.length) {
+                slowest = Integer.parseInt(args[++i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add(Settings.getString("TRACE_DIR", "/app/data/trace"));
+        }
+
+        Map<String, TraceRecord> traces = load(traceFiles(paths));
+        if (traces.isEmpty()) {
+            System.err.println("No trace spans found in " + paths);
+            System.exit(1);
+        }
+
+        if (traceId != null || meeting != null) {
+            List<TraceRecord> matching = new ArrayList<>();
+            for (TraceRecord trace : traces.values()) {
+                if (trace.id.equals(traceId) || (meeting != null && meeting.equals(trace.meeting))) {
+                    matching.add(trace);
+                }
+            }
+            if (matching.isEmpty()) {
+                System.err.println("No traces match");
+                System.exit(1);
+            }
+            // Versiones de una reunión en el orden en que se enviaron
+            matching.sort((a, b) -> Long.compare(a.sorted().get(0).micros, b.sorted().get(0).micros));
+            for (TraceRecord trace : matching) {
+                printTimeline(trace);
+            }
+            return;
+        }
+
+        printBreakdown(traces);
+        List<TraceRecord> bySlowest = new ArrayList<>(traces.values());
+        bySlowest.sort((a, b) -> Long.compare(b.duration(), a.duration()));
+        for (TraceRecord trace : bySlowest.subList(0, Math.min(slowest, bySlowest.size()))) {
+            printTimeline(trace);
+        }
+    }
+}